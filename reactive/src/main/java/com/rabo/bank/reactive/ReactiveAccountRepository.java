@@ -0,0 +1,97 @@
+package com.rabo.bank.reactive;
+
+import com.rabo.bank.dto.CustomerDTO;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/**
+ * The statements of the account API on R2DBC. Ids come from the sequences the JPA entities use: Hibernate treats
+ * each value it draws as the upper end of a block of 50 ids, so a value drawn here and used as it is never collides
+ * with an id Hibernate hands out.
+ */
+@Repository
+public class ReactiveAccountRepository {
+
+    private static final String NEXT_CUSTOMER_ID = "SELECT nextval('customer_seq')";
+    private static final String INSERT_CUSTOMER =
+            "INSERT INTO customer (id, first_name, email, address) VALUES (:id, :firstName, :email, :address)";
+    private static final String NEXT_ACCOUNT_ID = "SELECT nextval('account_seq')";
+    private static final String INSERT_ACCOUNT =
+            "INSERT INTO account (account_id, customer_id, iban, balance, version) VALUES (:id, :customerId, :iban, 0, 0)";
+    private static final String BALANCE = "SELECT a.balance + COALESCE((SELECT SUM(j.amount) FROM transaction_journal j "
+            + "WHERE j.iban = a.iban AND j.folded = FALSE), 0) FROM account a WHERE a.iban = :iban";
+    private static final String ADD_TO_BALANCE =
+            "UPDATE account SET balance = balance + :amount, version = version + 1 WHERE iban = :iban";
+    private static final String SUBTRACT_FROM_BALANCE = "UPDATE account SET balance = balance - :amount, "
+            + "version = version + 1 WHERE iban = :iban AND balance >= :amount";
+    private static final String APPEND_JOURNAL = "INSERT INTO transaction_journal (id, iban, amount, folded, created_at) "
+            + "VALUES (nextval('transaction_journal_seq'), :iban, :amount, TRUE, CURRENT_TIMESTAMP)";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveAccountRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Long> insertCustomer(CustomerDTO customer) {
+        return nextId(NEXT_CUSTOMER_ID).flatMap(id -> databaseClient.sql(INSERT_CUSTOMER)
+                .bind("id", id)
+                .bind("firstName", customer.firstName())
+                .bind("email", customer.emailAddress())
+                .bind("address", customer.address())
+                .then()
+                .thenReturn(id));
+    }
+
+    public Mono<Long> insertAccount(long customerId, String iban) {
+        return nextId(NEXT_ACCOUNT_ID).flatMap(id -> databaseClient.sql(INSERT_ACCOUNT)
+                .bind("id", id)
+                .bind("customerId", customerId)
+                .bind("iban", iban)
+                .then()
+                .thenReturn(id));
+    }
+
+    /**
+     * The account's balance including journal entries not folded into it yet, so the result matches what the
+     * servlet application reports for every write strategy. Empty if the account does not exist.
+     */
+    public Mono<BigDecimal> findBalanceByIban(String iban) {
+        return databaseClient.sql(BALANCE)
+                .bind("iban", iban)
+                .map(row -> row.get(0, BigDecimal.class))
+                .one();
+    }
+
+    public Mono<Long> addToBalance(String iban, BigDecimal amount) {
+        return databaseClient.sql(ADD_TO_BALANCE)
+                .bind("iban", iban)
+                .bind("amount", amount)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> subtractFromBalance(String iban, BigDecimal amount) {
+        return databaseClient.sql(SUBTRACT_FROM_BALANCE)
+                .bind("iban", iban)
+                .bind("amount", amount)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Void> appendJournal(String iban, BigDecimal amount) {
+        return databaseClient.sql(APPEND_JOURNAL)
+                .bind("iban", iban)
+                .bind("amount", amount)
+                .then();
+    }
+
+    private Mono<Long> nextId(String sql) {
+        return databaseClient.sql(sql)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+}
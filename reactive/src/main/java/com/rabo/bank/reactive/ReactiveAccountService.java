@@ -0,0 +1,114 @@
+package com.rabo.bank.reactive;
+
+import com.rabo.bank.dto.AccountDTO;
+import com.rabo.bank.dto.BalanceDTO;
+import com.rabo.bank.dto.CustomerDTO;
+import com.rabo.bank.dto.TransactionDTO;
+import com.rabo.bank.dto.TransferDTO;
+import com.rabo.bank.exception.AccountCreationException;
+import com.rabo.bank.exception.InsufficientBalanceException;
+import com.rabo.bank.exception.TransactionNotAllowedException;
+import com.rabo.bank.money.Money;
+import com.rabo.bank.service.IbanAllocator;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * The account operations of {@code AccountService} on R2DBC. Movements are applied like the {@code ATOMIC} write
+ * strategy, as one conditional UPDATE each, so concurrent writers never conflict and nothing needs retrying.
+ */
+@Service
+public class ReactiveAccountService {
+
+    private final ReactiveAccountRepository accountRepository;
+    private final IbanAllocator ibanAllocator;
+
+    public ReactiveAccountService(ReactiveAccountRepository accountRepository, IbanAllocator ibanAllocator) {
+        this.accountRepository = accountRepository;
+        this.ibanAllocator = ibanAllocator;
+    }
+
+    @Transactional
+    public Mono<AccountDTO> openAccount(CustomerDTO customerDTO) {
+        return nextIban()
+                .flatMap(iban -> accountRepository.insertCustomer(customerDTO)
+                        .flatMap(customerId -> accountRepository.insertAccount(customerId, iban))
+                        .map(accountId -> new AccountDTO(accountId, customerDTO.address(), iban)))
+                .onErrorMap(DataIntegrityViolationException.class, ex -> new AccountCreationException("Customer already exists"));
+    }
+
+    @Transactional(readOnly = true)
+    public Mono<BalanceDTO> getBalance(String iban) {
+        return currentBalance(iban).map(BalanceDTO::new);
+    }
+
+    @Transactional
+    public Mono<BalanceDTO> deposit(String iban, TransactionDTO transactionDTO) {
+        return Mono.fromCallable(() -> Money.toCents(transactionDTO.amount()))
+                .flatMap(amount -> credit(iban, amount))
+                .then(Mono.defer(() -> currentBalance(iban)))
+                .map(BalanceDTO::new);
+    }
+
+    @Transactional
+    public Mono<BalanceDTO> withdraw(String iban, TransactionDTO transactionDTO) {
+        return Mono.fromCallable(() -> Money.toCents(transactionDTO.amount()))
+                .flatMap(amount -> debit(iban, amount))
+                .then(Mono.defer(() -> currentBalance(iban)))
+                .map(BalanceDTO::new);
+    }
+
+    /**
+     * Locks the two rows in IBAN order, like the servlet ledgers, so opposite transfers cannot deadlock.
+     */
+    @Transactional
+    public Mono<BalanceDTO> transfer(TransferDTO transferDTO) {
+        var fromIban = transferDTO.fromIban();
+        var toIban = transferDTO.toIban();
+        if (fromIban.equals(toIban)) {
+            return Mono.error(new TransactionNotAllowedException("Cannot transfer to the same account"));
+        }
+
+        return Mono.fromCallable(() -> Money.toCents(transferDTO.amount()))
+                .flatMap(amount -> fromIban.compareTo(toIban) < 0
+                        ? debit(fromIban, amount).then(credit(toIban, amount))
+                        : credit(toIban, amount).then(debit(fromIban, amount)))
+                .then(Mono.defer(() -> currentBalance(fromIban)))
+                .map(BalanceDTO::new);
+    }
+
+    /**
+     * Account numbers are handed out from memory; only the occasional block reservation blocks on JDBC, so it is
+     * moved off the event loop.
+     */
+    private Mono<String> nextIban() {
+        return Mono.fromCallable(ibanAllocator::nextIban).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<Void> credit(String iban, long amount) {
+        var decimal = Money.toDecimal(amount);
+        return accountRepository.addToBalance(iban, decimal)
+                .flatMap(updated -> updated == 0
+                        ? Mono.error(new EntityNotFoundException("Account not found"))
+                        : accountRepository.appendJournal(iban, decimal));
+    }
+
+    private Mono<Void> debit(String iban, long amount) {
+        var decimal = Money.toDecimal(amount);
+        return accountRepository.subtractFromBalance(iban, decimal)
+                .flatMap(updated -> updated == 0
+                        // Nothing matched: either the account does not exist or the balance guard rejected the withdrawal.
+                        ? currentBalance(iban).then(Mono.error(new InsufficientBalanceException()))
+                        : accountRepository.appendJournal(iban, decimal.negate()));
+    }
+
+    private Mono<Long> currentBalance(String iban) {
+        return accountRepository.findBalanceByIban(iban)
+                .map(Money::toCents)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException("Account not found")));
+    }
+}
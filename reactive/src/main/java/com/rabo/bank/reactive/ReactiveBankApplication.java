@@ -0,0 +1,12 @@
+package com.rabo.bank.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ReactiveBankApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveBankApplication.class, args);
+    }
+}
@@ -0,0 +1,37 @@
+package com.rabo.bank.reactive;
+
+import com.rabo.bank.configuration.OpenApiConfig;
+import com.rabo.bank.exception.GlobalExceptionHandler;
+import com.rabo.bank.service.IbanAllocator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Reuses the error mapping and API description of the servlet application, and its {@link IbanAllocator}.
+ */
+@Configuration
+@Import({GlobalExceptionHandler.class, OpenApiConfig.class})
+public class ReactiveBankConfig {
+
+    /**
+     * The allocator only touches the database to reserve a new block of account numbers, so it gets a plain JDBC
+     * connection to the database Flyway migrates rather than a pool. Neither the data source nor its transaction
+     * manager is a bean, which keeps R2DBC the only transaction manager {@code @Transactional} can pick.
+     */
+    @Bean
+    public IbanAllocator ibanAllocator(@Value("${spring.flyway.url}") String url,
+                                       @Value("${spring.flyway.user}") String username,
+                                       @Value("${spring.flyway.password}") String password,
+                                       @Value("${bank.iban.country-code:NL}") String countryCode,
+                                       @Value("${bank.iban.bank-code:RABO}") String bankCode,
+                                       @Value("${bank.iban.block-size:1000}") int blockSize) {
+        var dataSource = new DriverManagerDataSource(url, username, password);
+        return new IbanAllocator(new JdbcTemplate(dataSource), new DataSourceTransactionManager(dataSource),
+                countryCode, bankCode, blockSize);
+    }
+}
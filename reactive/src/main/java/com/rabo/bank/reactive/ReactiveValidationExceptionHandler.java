@@ -0,0 +1,33 @@
+package com.rabo.bank.reactive;
+
+import com.rabo.bank.dto.ErrorDTO;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * WebFlux reports an invalid request body as {@link WebExchangeBindException} instead of the
+ * {@code MethodArgumentNotValidException} handled by {@code GlobalExceptionHandler}. This answers it the same way,
+ * ahead of that handler's catch-all.
+ */
+@ControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReactiveValidationExceptionHandler {
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ErrorDTO> handleValidationExceptions(WebExchangeBindException ex) {
+        List<String> parameters = new ArrayList<>();
+        for (FieldError error : ex.getBindingResult().getFieldErrors()) {
+            parameters.add(error.getField());
+        }
+        return new ResponseEntity<>(new ErrorDTO("Invalid parameters: " + parameters), HttpStatus.BAD_REQUEST);
+    }
+}
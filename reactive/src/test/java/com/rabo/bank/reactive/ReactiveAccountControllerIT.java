@@ -0,0 +1,120 @@
+package com.rabo.bank.reactive;
+
+import com.rabo.bank.dto.AccountDTO;
+import com.rabo.bank.dto.CustomerDTO;
+import com.rabo.bank.dto.TransactionDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Checks that the reactive application answers with the same bodies and status codes as {@code AccountControllerIT}
+ * expects from the servlet one. The seed accounts are only read, since nothing is rolled back between tests.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ReactiveAccountControllerIT {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void openAccount_shouldReturnCreatedAccount() {
+        var account = openAccount();
+
+        assertNotNull(account.iban());
+    }
+
+    @Test
+    void openAccount_shouldRejectInvalidCustomer() {
+        client().post().uri("/account")
+                .bodyValue(new CustomerDTO(null, "123 Main St", "email@example.com"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Invalid parameters: [firstName]");
+    }
+
+    @Test
+    void openAccount_shouldRejectExistingCustomer() {
+        client().post().uri("/account")
+                .bodyValue(new CustomerDTO("John", "123 Main St", "john.doe@example.com"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Customer already exists");
+    }
+
+    @Test
+    void getBalance_shouldReturnBalance() {
+        client().get().uri("/account/{iban}/balance", "NL49RABO0417164301")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.balance").isEqualTo("2000.00");
+    }
+
+    @Test
+    void getBalance_shouldReturnNotFound_whenAccountDoesNotExist() {
+        client().get().uri("/account/{iban}/balance", "NL00RABO0000000000")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.message").isEqualTo("Account not found");
+    }
+
+    @Test
+    void depositAndWithdraw_shouldUpdateBalance() {
+        var iban = openAccount().iban();
+
+        client().post().uri("/account/{iban}/deposit", iban)
+                .bodyValue(new TransactionDTO(BigDecimal.valueOf(500)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.balance").isEqualTo("500.00");
+
+        client().post().uri("/account/{iban}/withdraw", iban)
+                .bodyValue(new TransactionDTO(BigDecimal.valueOf(200)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.balance").isEqualTo("300.00");
+
+        client().post().uri("/account/{iban}/withdraw", iban)
+                .bodyValue(new TransactionDTO(BigDecimal.valueOf(1000)))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Insufficient balance");
+    }
+
+    @Test
+    void deposit_shouldRejectNegativeAmount() {
+        client().post().uri("/account/{iban}/deposit", "NL49RABO0417164300")
+                .bodyValue(new TransactionDTO(BigDecimal.valueOf(-1)))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getBalance_shouldRequireAuthentication() {
+        webTestClient.get().uri("/account/{iban}/balance", "NL49RABO0417164300")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    private AccountDTO openAccount() {
+        return client().post().uri("/account")
+                .bodyValue(new CustomerDTO("John", "123 Main St", UUID.randomUUID() + "@example.com"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(AccountDTO.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private WebTestClient client() {
+        return webTestClient.mutate()
+                .defaultHeaders(headers -> headers.setBasicAuth("admin", "password"))
+                .build();
+    }
+}
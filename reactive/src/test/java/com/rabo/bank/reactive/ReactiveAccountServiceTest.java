@@ -0,0 +1,96 @@
+package com.rabo.bank.reactive;
+
+import com.rabo.bank.dto.BalanceDTO;
+import com.rabo.bank.dto.CustomerDTO;
+import com.rabo.bank.dto.TransactionDTO;
+import com.rabo.bank.dto.TransferDTO;
+import com.rabo.bank.exception.AccountCreationException;
+import com.rabo.bank.exception.InsufficientBalanceException;
+import com.rabo.bank.exception.TransactionNotAllowedException;
+import com.rabo.bank.service.IbanAllocator;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveAccountServiceTest {
+
+    private static final String IBAN = "NL49RABO0417164300";
+
+    @Mock
+    private ReactiveAccountRepository accountRepository;
+
+    @Mock
+    private IbanAllocator ibanAllocator;
+
+    @InjectMocks
+    private ReactiveAccountService accountService;
+
+    @Test
+    void deposit_shouldUpdateInPlaceAndReturnNewBalance() {
+        when(accountRepository.addToBalance(IBAN, new BigDecimal("500.00"))).thenReturn(Mono.just(1L));
+        when(accountRepository.appendJournal(IBAN, new BigDecimal("500.00"))).thenReturn(Mono.empty());
+        when(accountRepository.findBalanceByIban(IBAN)).thenReturn(Mono.just(new BigDecimal("1500.00")));
+
+        StepVerifier.create(accountService.deposit(IBAN, new TransactionDTO(new BigDecimal("500"))))
+                .expectNext(new BalanceDTO(150_000L))
+                .verifyComplete();
+    }
+
+    @Test
+    void deposit_shouldFail_whenAccountNotFound() {
+        when(accountRepository.addToBalance(IBAN, new BigDecimal("1.00"))).thenReturn(Mono.just(0L));
+
+        StepVerifier.create(accountService.deposit(IBAN, new TransactionDTO(BigDecimal.ONE)))
+                .verifyError(EntityNotFoundException.class);
+        verify(accountRepository, never()).appendJournal(any(), any());
+    }
+
+    @Test
+    void withdraw_shouldFail_whenInsufficientBalance() {
+        when(accountRepository.subtractFromBalance(IBAN, new BigDecimal("2000.00"))).thenReturn(Mono.just(0L));
+        when(accountRepository.findBalanceByIban(IBAN)).thenReturn(Mono.just(new BigDecimal("1000.00")));
+
+        StepVerifier.create(accountService.withdraw(IBAN, new TransactionDTO(new BigDecimal("2000"))))
+                .verifyError(InsufficientBalanceException.class);
+    }
+
+    @Test
+    void withdraw_shouldFail_whenAccountNotFound() {
+        when(accountRepository.subtractFromBalance(IBAN, new BigDecimal("1.00"))).thenReturn(Mono.just(0L));
+        when(accountRepository.findBalanceByIban(IBAN)).thenReturn(Mono.empty());
+
+        StepVerifier.create(accountService.withdraw(IBAN, new TransactionDTO(BigDecimal.ONE)))
+                .verifyError(EntityNotFoundException.class);
+    }
+
+    @Test
+    void transfer_shouldRejectSameAccount() {
+        StepVerifier.create(accountService.transfer(new TransferDTO(IBAN, IBAN, BigDecimal.ONE)))
+                .verifyError(TransactionNotAllowedException.class);
+    }
+
+    @Test
+    void openAccount_shouldFail_whenCustomerAlreadyExists() {
+        var customerDTO = new CustomerDTO("John", "123 Main St", "john.doe@example.com");
+        when(ibanAllocator.nextIban()).thenReturn("NL49RABO0000001000");
+        when(accountRepository.insertCustomer(customerDTO))
+                .thenReturn(Mono.error(new DataIntegrityViolationException("duplicate e-mail")));
+
+        StepVerifier.create(accountService.openAccount(customerDTO))
+                .verifyError(AccountCreationException.class);
+    }
+}
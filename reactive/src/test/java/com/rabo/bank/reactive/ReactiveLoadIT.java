@@ -0,0 +1,136 @@
+package com.rabo.bank.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Drives deposits from {@code load.clients} concurrent clients (10,000 by default) through the reactive application
+ * and logs throughput, latency percentiles, the peak number of live platform threads and the peak number of
+ * database connections in use. {@code ThreadingModelLoadIT} of the servlet application reports the same figures
+ * for the same load when run with {@code -Dload.clients=10000}.
+ */
+class ReactiveLoadIT {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveLoadIT.class);
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 10_000);
+    private static final int REQUESTS_PER_CLIENT = 20;
+    private static final int ACCOUNTS = 50;
+    private static final String AUTHORIZATION =
+            "Basic " + Base64.getEncoder().encodeToString("admin:password".getBytes(StandardCharsets.UTF_8));
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @Test
+    void depositsFromConcurrentClients() throws Exception {
+        var database = UUID.randomUUID().toString();
+        var builder = new SpringApplicationBuilder(ReactiveBankApplication.class)
+                .properties("server.port=0",
+                        "spring.r2dbc.url=r2dbc:h2:mem:///" + database
+                                + "?options=DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+                        "spring.flyway.url=jdbc:h2:mem:" + database
+                                + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE");
+
+        try (var context = builder.run()) {
+            var baseUri = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            var ibans = openAccounts(baseUri);
+            var pool = (ConnectionPool) context.getBean(ConnectionFactory.class);
+
+            var threads = ManagementFactory.getThreadMXBean();
+            threads.resetPeakThreadCount();
+            var peakConnections = new AtomicInteger();
+            var sampler = Executors.newSingleThreadScheduledExecutor();
+            sampler.scheduleAtFixedRate(() -> peakConnections.accumulateAndGet(
+                    pool.getMetrics().map(PoolMetrics::acquiredSize).orElse(0), Math::max), 0, 5, TimeUnit.MILLISECONDS);
+
+            var failures = new AtomicInteger();
+            var latencies = new long[CLIENTS * REQUESTS_PER_CLIENT];
+            long began = System.nanoTime();
+
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> futures = new ArrayList<>(CLIENTS);
+                for (int c = 0; c < CLIENTS; c++) {
+                    int clientId = c;
+                    futures.add(executor.submit(() -> {
+                        for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                            var iban = ibans.get((clientId + r) % ibans.size());
+                            long start = System.nanoTime();
+                            var response = post(baseUri + "/account/" + iban + "/deposit", "{\"amount\":1.00}");
+                            latencies[clientId * REQUESTS_PER_CLIENT + r] = System.nanoTime() - start;
+                            if (response.statusCode() != 200) {
+                                failures.incrementAndGet();
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (var future : futures) {
+                    future.get();
+                }
+            } finally {
+                sampler.shutdownNow();
+            }
+
+            long elapsed = System.nanoTime() - began;
+            Arrays.sort(latencies);
+            log.info("Reactive, {} clients: {} req/s, p50 {} ms, p99 {} ms, {} failures, peak {} threads, peak {} of {} connections",
+                    CLIENTS, Math.round(latencies.length / (elapsed / 1_000_000_000.0)),
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), failures.get(),
+                    threads.getPeakThreadCount(), peakConnections.get(),
+                    pool.getMetrics().map(PoolMetrics::getMaxAllocatedSize).orElse(0));
+
+            assertEquals(0, failures.get());
+        }
+    }
+
+    private List<String> openAccounts(String baseUri) throws Exception {
+        List<String> ibans = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            var body = "{\"firstName\":\"Load\",\"address\":\"1 Load St\",\"emailAddress\":\"" + UUID.randomUUID() + "@example.com\"}";
+            var response = post(baseUri + "/account", body);
+            ibans.add(objectMapper.readTree(response.body()).get("iban").asText());
+        }
+        return ibans;
+    }
+
+    private HttpResponse<String> post(String uri, String body) throws Exception {
+        var request = HttpRequest.newBuilder(URI.create(uri))
+                .header("Authorization", AUTHORIZATION)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String percentile(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return String.format("%.2f", sortedNanos[Math.max(0, index)] / 1_000_000.0);
+    }
+}
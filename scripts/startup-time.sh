@@ -0,0 +1,54 @@
+#!/usr/bin/env bash
+# Time to first request: from launching the JVM until GET /actuator/health answers 200, as the median of several runs.
+# Compares the plain jar without a profile, the plain jar with the fast-startup profile, and the AOT-processed jar
+# with the fast-startup profile and a class data sharing archive, as the Docker image runs it.
+#
+# Usage: scripts/startup-time.sh [runs]
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+TIMEOUT_SECONDS=120
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+cd "$(dirname "$0")/.."
+
+mvn -q -B -DskipTests clean package
+cp target/bank-0.0.1-SNAPSHOT.jar "$WORK/plain.jar"
+
+mvn -q -B -DskipTests -Paot -Daot.profiles=fast-startup clean package
+java -Djarmode=tools -jar target/bank-0.0.1-SNAPSHOT.jar extract --destination "$WORK/aot"
+java -XX:ArchiveClassesAtExit="$WORK/aot/application.jsa" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+    -jar "$WORK/aot/bank-0.0.1-SNAPSHOT.jar" --spring.profiles.active=fast-startup > /dev/null
+
+measure() {
+    local label=$1
+    shift
+    local times=()
+    for ((run = 0; run < RUNS; run++)); do
+        local start
+        start=$(date +%s%N)
+        "$@" --server.port="$PORT" > "$WORK/app.log" 2>&1 &
+        local pid=$!
+        until curl -sf -u admin:password "http://localhost:$PORT/actuator/health" > /dev/null; do
+            if (( ($(date +%s%N) - start) / 1000000000 > TIMEOUT_SECONDS )) || ! kill -0 "$pid" 2> /dev/null; then
+                echo "$label: no response within ${TIMEOUT_SECONDS}s, see the log below" >&2
+                cat "$WORK/app.log" >&2
+                kill "$pid" 2> /dev/null || true
+                exit 1
+            fi
+            sleep 0.02
+        done
+        times+=($(( ($(date +%s%N) - start) / 1000000 )))
+        kill "$pid"
+        wait "$pid" 2> /dev/null || true
+    done
+    local sorted
+    sorted=($(printf '%s\n' "${times[@]}" | sort -n))
+    printf '%-28s median %6d ms   runs: %s\n' "$label" "${sorted[$(( RUNS / 2 ))]}" "${times[*]}"
+}
+
+measure "baseline" java -jar "$WORK/plain.jar"
+measure "fast-startup" java -jar "$WORK/plain.jar" --spring.profiles.active=fast-startup
+measure "fast-startup + AOT + CDS" java -XX:SharedArchiveFile="$WORK/aot/application.jsa" -Dspring.aot.enabled=true \
+    -jar "$WORK/aot/bank-0.0.1-SNAPSHOT.jar" --spring.profiles.active=fast-startup
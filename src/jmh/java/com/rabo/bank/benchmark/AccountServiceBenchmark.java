@@ -0,0 +1,86 @@
+package com.rabo.bank.benchmark;
+
+import com.rabo.bank.BankApplication;
+import com.rabo.bank.dto.BalanceDTO;
+import com.rabo.bank.dto.CustomerDTO;
+import com.rabo.bank.dto.TransactionDTO;
+import com.rabo.bank.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded cost of the account hot paths against in-memory H2, for every write strategy. The balance cache
+ * is sized to zero so {@code getBalance} measures the ledger read rather than a cache hit.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccountServiceBenchmark {
+
+    private static final TransactionDTO AMOUNT = new TransactionDTO(new BigDecimal("1.00"));
+
+    @Param({"OPTIMISTIC", "ATOMIC", "JOURNAL", "IN_MEMORY"})
+    public String writeStrategy;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private String iban;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankApplication.class)
+                .web(WebApplicationType.NONE)
+                // Arguments, unlike builder properties, take precedence over application.properties
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID()
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+                        "--bank.account.write-strategy=" + writeStrategy,
+                        "--bank.cache.balances.maximum-size=0",
+                        "--logging.level.root=WARN");
+        accountService = context.getBean(AccountService.class);
+
+        iban = accountService.openAccount(
+                new CustomerDTO("Benchmark", "1 Benchmark St", UUID.randomUUID() + "@example.com")).iban();
+        accountService.deposit(iban, new TransactionDTO(new BigDecimal("1000000000.00")));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BalanceDTO deposit() {
+        return accountService.deposit(iban, AMOUNT);
+    }
+
+    @Benchmark
+    public BalanceDTO withdraw() {
+        return accountService.withdraw(iban, AMOUNT);
+    }
+
+    @Benchmark
+    public BalanceDTO getBalance() {
+        return accountService.getBalance(iban);
+    }
+}
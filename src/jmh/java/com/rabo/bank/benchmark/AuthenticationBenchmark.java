@@ -0,0 +1,82 @@
+package com.rabo.bank.benchmark;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import com.rabo.bank.configuration.CachingAuthenticationProvider;
+import com.rabo.bank.service.TokenService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of authenticating the caller: HTTP Basic checked against the BCrypt hash on every request, HTTP
+ * Basic through the verified-credential cache, and verifying an HMAC-signed bearer token. The banking operation
+ * itself is not included, so the numbers are the overhead added to each call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthenticationBenchmark {
+
+    private static final String SECRET = "benchmark-only-token-secret-0123456789";
+
+    private DaoAuthenticationProvider basic;
+    private CachingAuthenticationProvider cachedBasic;
+    private JwtDecoder jwtDecoder;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        var passwordEncoder = PasswordEncoderFactories.createDelegatingPasswordEncoder();
+        basic = new DaoAuthenticationProvider();
+        basic.setPasswordEncoder(passwordEncoder);
+        basic.setUserDetailsService(new InMemoryUserDetailsManager(
+                User.withUsername("admin").password(passwordEncoder.encode("password")).build()));
+        cachedBasic = new CachingAuthenticationProvider(basic, Duration.ofMinutes(10), 1000);
+
+        var key = new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        jwtDecoder = NimbusJwtDecoder.withSecretKey(key).macAlgorithm(TokenService.ALGORITHM).build();
+        token = new TokenService(new NimbusJwtEncoder(new ImmutableSecret<>(key)), Duration.ofHours(1))
+                .issueToken(UsernamePasswordAuthenticationToken.authenticated("admin", null, null))
+                .accessToken();
+    }
+
+    @Benchmark
+    public Authentication basic() {
+        return basic.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "password"));
+    }
+
+    @Benchmark
+    public Authentication cachedBasic() {
+        return cachedBasic.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "password"));
+    }
+
+    @Benchmark
+    public Jwt bearer() {
+        return jwtDecoder.decode(token);
+    }
+}
@@ -0,0 +1,109 @@
+package com.rabo.bank.benchmark;
+
+import com.rabo.bank.BankApplication;
+import com.rabo.bank.dto.CustomerDTO;
+import com.rabo.bank.dto.TransactionDTO;
+import com.rabo.bank.exception.TransactionNotAllowedException;
+import com.rabo.bank.service.AccountService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.ConcurrencyFailureException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deposits from many threads spread over a varying number of accounts, for each locking strategy. With one hot
+ * account every write contends; with 1024 almost none do. The {@code rejected} counter reports deposits that still
+ * failed after the optimistic retries ran out or that timed out waiting for a row lock, so throughput can be read
+ * together with the failure rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class ContentionBenchmark {
+
+    private static final TransactionDTO AMOUNT = new TransactionDTO(new BigDecimal("1.00"));
+
+    @Param({"OPTIMISTIC", "PESSIMISTIC", "ATOMIC"})
+    public String writeStrategy;
+
+    @Param({"1", "16", "1024"})
+    public int hotAccounts;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private List<String> ibans;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankApplication.class)
+                .web(WebApplicationType.NONE)
+                // Arguments, unlike builder properties, take precedence over application.properties
+                .run("--spring.datasource.url=jdbc:h2:mem:contention-" + UUID.randomUUID()
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+                        "--bank.account.write-strategy=" + writeStrategy,
+                        "--logging.level.root=WARN");
+        accountService = context.getBean(AccountService.class);
+
+        ibans = new ArrayList<>(hotAccounts);
+        for (int i = 0; i < hotAccounts; i++) {
+            ibans.add(accountService.openAccount(
+                    new CustomerDTO("Contention " + i, "1 Contention St", UUID.randomUUID() + "@example.com")).iban());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void deposit(Outcomes outcomes) {
+        var iban = ibans.get(ThreadLocalRandom.current().nextInt(ibans.size()));
+        try {
+            accountService.deposit(iban, AMOUNT);
+            outcomes.applied++;
+        } catch (TransactionNotAllowedException | ConcurrencyFailureException e) {
+            outcomes.rejected++;
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcomes {
+
+        public long applied;
+        public long rejected;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            applied = 0;
+            rejected = 0;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.rabo.bank.benchmark;
+
+import com.rabo.bank.BankApplication;
+import com.rabo.bank.dto.BalanceDTO;
+import com.rabo.bank.dto.CustomerDTO;
+import com.rabo.bank.dto.TransactionDTO;
+import com.rabo.bank.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deposit throughput of the {@code durable} profile for each durability level, from 8 threads over 64 accounts,
+ * against a database file in a temporary directory. The gap between {@code COMMIT} and {@code FSYNC} is the cost of
+ * syncing the file and depends mostly on the disk; run it on the storage the application will use.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class DurabilityBenchmark {
+
+    private static final TransactionDTO AMOUNT = new TransactionDTO(new BigDecimal("1.00"));
+    private static final int ACCOUNTS = 64;
+
+    @Param({"RELAXED", "COMMIT", "FSYNC"})
+    public String durability;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private List<String> ibans;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("durability-");
+        context = new SpringApplicationBuilder(BankApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("durable")
+                // Arguments, unlike builder properties, take precedence over application-durable.properties
+                .run("--bank.h2.path=" + directory.resolve("bank"),
+                        "--bank.h2.durability=" + durability,
+                        "--bank.account.write-strategy=ATOMIC",
+                        "--logging.level.root=WARN");
+        accountService = context.getBean(AccountService.class);
+
+        ibans = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            ibans.add(accountService.openAccount(
+                    new CustomerDTO("Durability " + i, "1 Durability St", UUID.randomUUID() + "@example.com")).iban());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public BalanceDTO deposit() {
+        return accountService.deposit(ibans.get(ThreadLocalRandom.current().nextInt(ACCOUNTS)), AMOUNT);
+    }
+}
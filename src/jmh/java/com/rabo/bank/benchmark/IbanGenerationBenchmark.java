@@ -0,0 +1,56 @@
+package com.rabo.bank.benchmark;
+
+import com.rabo.bank.service.IbanAllocator;
+import org.iban4j.Iban;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link Iban#random()}, which account creation used before, with the block-reserving
+ * {@link IbanAllocator} backed by an in-memory H2 database. Run with several threads ({@code -t 8}) to see the
+ * allocator stay contention free between block reservations.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IbanGenerationBenchmark {
+
+    private IbanAllocator allocator;
+
+    @Setup
+    public void setUp() {
+        var dataSource = new DriverManagerDataSource("jdbc:h2:mem:iban-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        var jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE iban_block (country_code VARCHAR(2) NOT NULL, bank_code VARCHAR(11) NOT NULL, "
+                + "next_number BIGINT NOT NULL, PRIMARY KEY (country_code, bank_code))");
+
+        allocator = new IbanAllocator(jdbcTemplate, new DataSourceTransactionManager(dataSource), "NL", "RABO", 1000);
+    }
+
+    @Benchmark
+    public Iban randomIban() {
+        return Iban.random();
+    }
+
+    @Benchmark
+    public String allocatedIban() {
+        return allocator.nextIban();
+    }
+}
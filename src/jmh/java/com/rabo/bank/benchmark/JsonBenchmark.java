@@ -0,0 +1,65 @@
+package com.rabo.bank.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabo.bank.dto.BalanceDTO;
+import com.rabo.bank.dto.TransactionDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request and response (de)serialization with an {@link ObjectMapper} configured the way Spring MVC builds it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final TransactionDTO transaction = new TransactionDTO(new BigDecimal("500.00"));
+    private final BalanceDTO balance = new BalanceDTO(150_000L);
+
+    private String transactionJson;
+    private String balanceJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        transactionJson = objectMapper.writeValueAsString(transaction);
+        balanceJson = objectMapper.writeValueAsString(balance);
+    }
+
+    @Benchmark
+    public String serializeTransaction() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(transaction);
+    }
+
+    @Benchmark
+    public TransactionDTO deserializeTransaction() throws JsonProcessingException {
+        return objectMapper.readValue(transactionJson, TransactionDTO.class);
+    }
+
+    @Benchmark
+    public String serializeBalance() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(balance);
+    }
+
+    @Benchmark
+    public BalanceDTO deserializeBalance() throws JsonProcessingException {
+        return objectMapper.readValue(balanceJson, BalanceDTO.class);
+    }
+}
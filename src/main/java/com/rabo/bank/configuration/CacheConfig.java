@@ -0,0 +1,32 @@
+package com.rabo.bank.configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String BALANCES = "balances";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${bank.cache.balances.maximum-size:100000}") long maximumSize,
+                                     @Value("${bank.cache.balances.ttl:30s}") Duration ttl) {
+        var cacheManager = new CaffeineCacheManager(BALANCES);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats());
+        // Defer puts and evictions issued inside a transaction until it commits, so a rolled back write
+        // never leaves its balance behind in the cache.
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,49 @@
+package com.rabo.bank.configuration;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+/**
+ * Applies {@code bank.h2.durability} to the file-backed H2 database of the {@code durable} profile. The write delay
+ * is a persistent database setting, so it is set at startup, before the application takes requests.
+ */
+@Configuration
+@Profile("durable")
+public class DurableH2Config {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final H2Durability durability;
+    private final int writeDelay;
+
+    public DurableH2Config(JdbcTemplate jdbcTemplate,
+                           @Value("${bank.h2.durability:COMMIT}") H2Durability durability,
+                           @Value("${bank.h2.write-delay:500}") int writeDelay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.durability = durability;
+        this.writeDelay = writeDelay;
+    }
+
+    @PostConstruct
+    void applyWriteDelay() {
+        jdbcTemplate.execute("SET WRITE_DELAY " + durability.writeDelay(writeDelay));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "bank.h2.durability", havingValue = "FSYNC")
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                    DataSourceProperties dataSourceProperties) {
+        var syncDataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(SimpleDriverDataSource.class)
+                .build();
+        return new SyncingJpaTransactionManager(entityManagerFactory, syncDataSource);
+    }
+}
@@ -1,19 +1,68 @@
 package com.rabo.bank.configuration;
 
 import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DatabaseDriver;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
 import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
 
     @Configuration
     public class FlywayConfig {
 
+        private static final String H2_MODE =
+                "SELECT SETTING_VALUE FROM INFORMATION_SCHEMA.SETTINGS WHERE SETTING_NAME = 'MODE'";
+
+        /**
+         * Scripts that need database-specific syntax live in {@code db/vendor/<dialect>}, e.g. {@code V1}, which
+         * declares its identity columns differently on H2 and PostgreSQL. With
+         * {@code bank.flyway.validate-on-migrate=false} applied migrations are not compared with their scripts on
+         * startup, which saves reading and checksumming every script when the schema is unchanged.
+         */
         @Bean(initMethod = "migrate")
-        public Flyway flyway(DataSource dataSource) {
+        public Flyway flyway(DataSource dataSource,
+                             @Value("${bank.flyway.validate-on-migrate:true}") boolean validateOnMigrate) {
+            return configure(dataSource, validateOnMigrate).load();
+        }
+
+        /**
+         * Migration settings of the application database, also applied to every shard when sharding is enabled.
+         */
+        static FluentConfiguration configure(DataSource dataSource, boolean validateOnMigrate) {
             return Flyway.configure()
                     .dataSource(dataSource)
-                    .locations("classpath:db/migration")
+                    .locations("classpath:db/migration", "classpath:db/vendor/" + dialect(dataSource))
                     .baselineOnMigrate(true)
-                    .load();
+                    .validateOnMigrate(validateOnMigrate);
+        }
+
+        /**
+         * H2 in PostgreSQL mode, which tests and local runs use, rejects H2's own {@code AUTO_INCREMENT} and takes
+         * the PostgreSQL scripts. H2 in its regular mode keeps the scripts it was originally migrated with.
+         */
+        private static String dialect(DataSource dataSource) {
+            try {
+                return JdbcUtils.extractDatabaseMetaData(dataSource, metaData -> {
+                    var driver = DatabaseDriver.fromJdbcUrl(metaData.getURL());
+                    return driver == DatabaseDriver.H2 && "PostgreSQL".equals(h2Mode(metaData.getConnection()))
+                            ? DatabaseDriver.POSTGRESQL.getId()
+                            : driver.getId();
+                });
+            } catch (MetaDataAccessException e) {
+                throw new IllegalStateException("Cannot determine the database to migrate", e);
+            }
+        }
+
+        private static String h2Mode(Connection connection) throws SQLException {
+            try (var statement = connection.createStatement();
+                 var mode = statement.executeQuery(H2_MODE)) {
+                return mode.next() ? mode.getString(1) : null;
+            }
         }
     }
\ No newline at end of file
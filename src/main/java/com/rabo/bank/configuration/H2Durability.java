@@ -0,0 +1,27 @@
+package com.rabo.bank.configuration;
+
+/**
+ * How far a commit to the file-backed H2 database of the {@code durable} profile has made it to disk before the
+ * request that issued it is answered.
+ */
+public enum H2Durability {
+    /**
+     * Let the MVStore write committed changes in the background within {@code bank.h2.write-delay}. A crash of the
+     * JVM loses the commits of that window.
+     */
+    RELAXED,
+    /**
+     * Write every commit to the database file before it returns ({@code WRITE_DELAY 0}). Survives a crash of the
+     * JVM, but not of the operating system or a power loss, since the file is not synced.
+     */
+    COMMIT,
+    /**
+     * Like {@link #COMMIT}, and sync the file to the device after each commit. Commits that finish while a sync is
+     * running share the next one.
+     */
+    FSYNC;
+
+    public int writeDelay(int relaxedWriteDelay) {
+        return this == RELAXED ? relaxedWriteDelay : 0;
+    }
+}
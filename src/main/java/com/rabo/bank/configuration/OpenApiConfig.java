@@ -13,6 +13,7 @@ public class OpenApiConfig {
     @Bean
     public OpenAPI openApiCustomConfig() {
         final String securitySchemeName = "basicAuth";
+        final String tokenSchemeName = "bearerAuth";
 
         return new OpenAPI()
                 .info(new Info()
@@ -24,8 +25,15 @@ public class OpenApiConfig {
                                 .name(securitySchemeName)
                                 .type(SecurityScheme.Type.HTTP)
                                 .scheme("basic")
+                                .in(SecurityScheme.In.HEADER))
+                        .addSecuritySchemes(tokenSchemeName, new SecurityScheme()
+                                .name(tokenSchemeName)
+                                .type(SecurityScheme.Type.HTTP)
+                                .scheme("bearer")
+                                .bearerFormat("JWT")
                                 .in(SecurityScheme.In.HEADER)))
-                .addSecurityItem(new SecurityRequirement().addList(securitySchemeName));
+                .addSecurityItem(new SecurityRequirement().addList(securitySchemeName))
+                .addSecurityItem(new SecurityRequirement().addList(tokenSchemeName));
     }
 }
 
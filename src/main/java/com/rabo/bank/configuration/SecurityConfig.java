@@ -1,27 +1,120 @@
 package com.rabo.bank.configuration;
 
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import com.rabo.bank.service.TokenService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    private static final int MIN_SECRET_LENGTH = 32;
+
+    /**
+     * Tokens are only issued against Basic credentials. Accepting a bearer token here would let every token mint
+     * its own successor, so a leaked token would never expire.
+     */
     @Bean
+    @Order(1)
+    public SecurityFilterChain tokenIssuanceFilterChain(HttpSecurity http) throws Exception {
+        http.securityMatcher("/auth/token")
+                .authorizeHttpRequests(authorize -> authorize.anyRequest().authenticated())
+                .httpBasic(Customizer.withDefaults());
+        http.csrf(AbstractHttpConfigurer::disable);
+
+        return http.build();
+    }
+
+    @Bean
+    @Order(2)
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http.authorizeHttpRequests(authorize ->
                 authorize.requestMatchers("/swagger-ui**", "/v3/api-docs/**", "/h2-console/**").permitAll()
-                        .anyRequest().authenticated()).httpBasic(Customizer.withDefaults());
+                        .anyRequest().authenticated()).httpBasic(Customizer.withDefaults())
+                .oauth2ResourceServer(resourceServer -> resourceServer.jwt(Customizer.withDefaults()));
         // For testing
         http.csrf(AbstractHttpConfigurer::disable);
         http.headers(headers -> headers.frameOptions(HeadersConfigurer.FrameOptionsConfig::disable));
 
         return http.build();
     }
-}
\ No newline at end of file
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+    }
+
+    /**
+     * The {@code spring.security.user} account. A plain password is hashed once at startup; an encoded value such as
+     * {@code {bcrypt}$2a$10$...} is used as it is.
+     */
+    @Bean
+    public UserDetailsService userDetailsService(SecurityProperties securityProperties, PasswordEncoder passwordEncoder) {
+        var user = securityProperties.getUser();
+        var password = user.getPassword().startsWith("{") ? user.getPassword() : passwordEncoder.encode(user.getPassword());
+        return new InMemoryUserDetailsManager(User.withUsername(user.getName())
+                .password(password)
+                .roles(user.getRoles().toArray(String[]::new))
+                .build());
+    }
+
+    @Bean
+    public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService,
+                                                         PasswordEncoder passwordEncoder,
+                                                         @Value("${bank.security.credential-cache.ttl:1m}") Duration ttl,
+                                                         @Value("${bank.security.credential-cache.maximum-size:10000}") long maximumSize) {
+        var passwordCheck = new DaoAuthenticationProvider();
+        passwordCheck.setUserDetailsService(userDetailsService);
+        passwordCheck.setPasswordEncoder(passwordEncoder);
+        return new CachingAuthenticationProvider(passwordCheck, ttl, maximumSize);
+    }
+
+    @Bean
+    public JwtEncoder jwtEncoder(@Value("${bank.security.token.secret}") String secret) {
+        return new NimbusJwtEncoder(new ImmutableSecret<>(tokenKey(secret)));
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder(@Value("${bank.security.token.secret}") String secret) {
+        var decoder = NimbusJwtDecoder.withSecretKey(tokenKey(secret))
+                .macAlgorithm(TokenService.ALGORITHM)
+                .build();
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(TokenService.ISSUER));
+        return decoder;
+    }
+
+    private static SecretKey tokenKey(String secret) {
+        var bytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < MIN_SECRET_LENGTH) {
+            throw new IllegalStateException("bank.security.token.secret must be at least " + MIN_SECRET_LENGTH + " bytes");
+        }
+        return new SecretKeySpec(bytes, "HmacSHA256");
+    }
+}
@@ -0,0 +1,51 @@
+package com.rabo.bank.configuration;
+
+import com.rabo.bank.service.ShardRouter;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out connections of the shard {@link ShardRouter} selected for the current thread, or of the first shard
+ * when none is selected. Closing it closes the pool of every shard.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final ShardRouter shardRouter;
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(ShardRouter shardRouter, List<DataSource> shards) {
+        this.shardRouter = shardRouter;
+        this.shards = List.copyOf(shards);
+
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    public List<DataSource> getShards() {
+        return shards;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return shardRouter.currentShard();
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (var shard : shards) {
+            if (shard instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
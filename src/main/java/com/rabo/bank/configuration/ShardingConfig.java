@@ -0,0 +1,85 @@
+package com.rabo.bank.configuration;
+
+import com.rabo.bank.service.ShardRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spreads accounts over the databases listed in {@code bank.sharding.urls}, see {@link ShardRouter}. Every shard
+ * gets its own Hikari pool, configured from {@code spring.datasource.hikari.*} and the credentials of
+ * {@code spring.datasource}, reports its {@code hikaricp_*} metrics tagged with {@code pool=shard-<n>}, and is
+ * migrated like the application database before the application uses it.
+ */
+@Configuration
+@ConditionalOnProperty(name = "bank.sharding.urls")
+public class ShardingConfig {
+
+    /**
+     * Each shard issues customer, account, journal and outbox ids from its own range, so ids stay unique across
+     * shards even though Hibernate pools them in memory regardless of the shard they came from.
+     */
+    static final long SHARD_ID_RANGE = 1L << 48;
+
+    private static final List<String> SEQUENCES = List.of("customer_seq", "account_seq", "transaction_journal_seq",
+            "outbox_event_seq");
+
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(DataSourceProperties dataSourceProperties,
+                                             Environment environment,
+                                             ShardRouter shardRouter,
+                                             MeterRegistry meterRegistry,
+                                             @Value("${bank.sharding.urls}") List<String> urls,
+                                             @Value("${bank.flyway.validate-on-migrate:true}") boolean validateOnMigrate,
+                                             @Value("${spring.jpa.open-in-view:true}") boolean openInView) {
+        // An EntityManager kept open for the whole request holds on to the connection of its first transaction,
+        // which would send the later transactions of that request to the same shard.
+        if (openInView) {
+            throw new IllegalStateException("Sharding requires spring.jpa.open-in-view=false");
+        }
+
+        List<DataSource> shards = new ArrayList<>(urls.size());
+        for (int shard = 0; shard < urls.size(); shard++) {
+            var dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(shard))
+                    .build();
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+            dataSource.setPoolName("shard-" + shard);
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+            FlywayConfig.configure(dataSource, validateOnMigrate).load().migrate();
+            reserveIdRange(new JdbcTemplate(dataSource), shard);
+            shards.add(dataSource);
+        }
+        return new ShardRoutingDataSource(shardRouter, shards);
+    }
+
+    /**
+     * Moves the id sequences of a shard to the start of its range, unless they are past it already.
+     */
+    private void reserveIdRange(JdbcTemplate jdbcTemplate, int shard) {
+        var start = shard * SHARD_ID_RANGE;
+        for (var sequence : SEQUENCES) {
+            var next = jdbcTemplate.queryForObject("SELECT nextval('" + sequence + "')", Long.class);
+            if (next != null && next < start) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + start);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.rabo.bank.configuration;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Returns from a commit only once H2 has synced it to the device with {@code CHECKPOINT SYNC}. Syncs run one at a
+ * time on a dedicated connection, outside the pool, and each one covers every commit that finished before it
+ * started, so concurrent committers wait for a shared sync instead of queueing one each.
+ */
+public class SyncingJpaTransactionManager extends JpaTransactionManager {
+
+    private final DataSource syncDataSource;
+    private final AtomicLong commits = new AtomicLong();
+    private final Object syncLock = new Object();
+
+    private long synced;
+    private Connection syncConnection;
+
+    public SyncingJpaTransactionManager(EntityManagerFactory entityManagerFactory, DataSource syncDataSource) {
+        super(entityManagerFactory);
+        this.syncDataSource = syncDataSource;
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        super.doCommit(status);
+        if (!status.isReadOnly()) {
+            sync(commits.incrementAndGet());
+        }
+    }
+
+    private void sync(long commit) {
+        synchronized (syncLock) {
+            if (synced >= commit) {
+                return;
+            }
+
+            long upTo = commits.get();
+            try {
+                if (syncConnection == null || syncConnection.isClosed()) {
+                    syncConnection = syncDataSource.getConnection();
+                }
+                try (var statement = syncConnection.createStatement()) {
+                    statement.execute("CHECKPOINT SYNC");
+                }
+            } catch (SQLException e) {
+                throw new TransactionSystemException("Committed, but could not sync the database file", e);
+            }
+            synced = upTo;
+        }
+    }
+}
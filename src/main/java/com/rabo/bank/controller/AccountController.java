@@ -2,43 +2,92 @@ package com.rabo.bank.controller;
 
 import com.rabo.bank.dto.AccountDTO;
 import com.rabo.bank.dto.BalanceDTO;
+import com.rabo.bank.dto.BalanceEventDTO;
+import com.rabo.bank.dto.BatchRequestDTO;
+import com.rabo.bank.dto.BatchResultDTO;
+import com.rabo.bank.dto.BatchTransactionDTO;
 import com.rabo.bank.dto.CustomerDTO;
+import com.rabo.bank.dto.ImportResultDTO;
+import com.rabo.bank.dto.StatementPageDTO;
 import com.rabo.bank.dto.TransactionDTO;
+import com.rabo.bank.dto.TransferDTO;
 import com.rabo.bank.service.AccountService;
+import com.rabo.bank.service.IdempotencyService;
+import com.rabo.bank.service.StatementFormat;
+import com.rabo.bank.service.StatementService;
+import com.rabo.bank.service.admission.AdmissionControl;
+import com.rabo.bank.service.onboarding.AccountImportService;
+import com.rabo.bank.service.outbox.BalanceEventStream;
+import com.rabo.bank.service.onboarding.ImportFormat;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.Principal;
+import java.util.List;
 
 @RestController
 @RequestMapping(path = "/account")
 @SecurityRequirement(name = "basicAuth")
+@SecurityRequirement(name = "bearerAuth")
 public class AccountController {
 
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String IDEMPOTENCY_KEY_DESCRIPTION =
+            "Optional client chosen key. Retrying with the same key returns the first result instead of applying the request again";
+
     private final AccountService accountService;
+    private final AccountImportService accountImportService;
+    private final StatementService statementService;
+    private final IdempotencyService idempotencyService;
+    private final BalanceEventStream balanceEventStream;
+    private final AdmissionControl admissionControl;
 
-    public AccountController(AccountService accountService) {
+    public AccountController(AccountService accountService,
+                             AccountImportService accountImportService,
+                             StatementService statementService,
+                             IdempotencyService idempotencyService,
+                             BalanceEventStream balanceEventStream,
+                             AdmissionControl admissionControl) {
         this.accountService = accountService;
+        this.accountImportService = accountImportService;
+        this.statementService = statementService;
+        this.idempotencyService = idempotencyService;
+        this.balanceEventStream = balanceEventStream;
+        this.admissionControl = admissionControl;
     }
 
     @Operation(summary = "Open a new account", description = "Creates a new bank account for the provided customer details")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Account created successfully",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = AccountDTO.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid request")
+            @ApiResponse(responseCode = "400", description = "Invalid request"),
+            @ApiResponse(responseCode = "429", description = "Too many requests, retry after the Retry-After header")
     })
     @PostMapping
-    public AccountDTO openAccount(@RequestBody @Validated CustomerDTO customerDTO) {
-        return accountService.openAccount(customerDTO);
+    public AccountDTO openAccount(@RequestBody @Validated CustomerDTO customerDTO, Principal principal) {
+        return admissionControl.admit(principal, List.of(), () -> accountService.openAccount(customerDTO));
     }
 
     @Operation(summary = "Get account balance", description = "Retrieves the balance for the specified account IBAN")
@@ -52,16 +101,72 @@ public class AccountController {
         return accountService.getBalance(iban);
     }
 
+    @Operation(summary = "Get account statement",
+            description = "Returns the movements of the account in the order they were booked, one page at a time. "
+                    + "Pass the nextCursor of a page as after to get the following page")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Statement page retrieved successfully",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = StatementPageDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Account not found")
+    })
+    @GetMapping(value = "/{iban}/statement")
+    public StatementPageDTO getStatement(@PathVariable String iban,
+                                         @RequestParam(defaultValue = "0") long after,
+                                         @Parameter(description = "Page size, at most 1000")
+                                         @RequestParam(defaultValue = "100") int size) {
+        return statementService.getStatement(iban, after, size);
+    }
+
+    @Operation(summary = "Export account statement",
+            description = "Streams every movement of the account as NDJSON or CSV, written while it is read from the database")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Statement streamed"),
+            @ApiResponse(responseCode = "404", description = "Account not found")
+    })
+    @GetMapping(value = "/{iban}/statement/export")
+    public ResponseEntity<StreamingResponseBody> exportStatement(@PathVariable String iban,
+                                                                 @RequestParam(defaultValue = "NDJSON") StatementFormat format) {
+        statementService.requireAccount(iban);
+
+        StreamingResponseBody body = out -> statementService.writeStatement(iban, format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + iban + "-statement." + format.getExtension() + "\"")
+                .body(body);
+    }
+
+    @Operation(summary = "Stream balance events",
+            description = "Server-sent events for every account opened and every deposit and withdrawal, published as "
+                    + "they are relayed from the outbox. Only events relayed while the client is connected are sent")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Event stream opened",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                            schema = @Schema(implementation = BalanceEventDTO.class)))
+    })
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@Parameter(description = "Only send the events of this account")
+                                   @RequestParam(required = false) String iban) {
+        return balanceEventStream.subscribe(iban);
+    }
+
     @Operation(summary = "Deposit into account", description = "Deposits a specified amount into the account with the provided IBAN")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Deposit successful",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = BalanceDTO.class))),
-            @ApiResponse(responseCode = "404", description = "Account not found")
+            @ApiResponse(responseCode = "404", description = "Account not found"),
+            @ApiResponse(responseCode = "409", description = "Idempotency-Key in use or used for a different request"),
+            @ApiResponse(responseCode = "429", description = "Too many requests, retry after the Retry-After header")
     })
     @PostMapping(value = "/{iban}/deposit")
-    public BalanceDTO deposit(@PathVariable String iban, @RequestBody TransactionDTO transactionDTO) {
-        accountService.deposit(iban, transactionDTO);
-        return accountService.getBalance(iban);
+    public BalanceDTO deposit(@PathVariable String iban,
+                              @RequestBody TransactionDTO transactionDTO,
+                              @Parameter(description = IDEMPOTENCY_KEY_DESCRIPTION)
+                              @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                              Principal principal) {
+        return admissionControl.admit(principal, List.of(iban), () -> idempotencyService.execute(principal, idempotencyKey,
+                IdempotencyService.fingerprint("deposit", iban, transactionDTO.amount()),
+                () -> accountService.deposit(iban, transactionDTO)));
     }
 
     @Operation(summary = "Withdraw from account", description = "Withdraws a specified amount from the account with the provided IBAN")
@@ -70,11 +175,73 @@ public class AccountController {
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = BalanceDTO.class))),
             @ApiResponse(responseCode = "404", description = "Account not found",
                     content = @Content),
-            @ApiResponse(responseCode = "400", description = "Insufficient balance")
+            @ApiResponse(responseCode = "400", description = "Insufficient balance"),
+            @ApiResponse(responseCode = "409", description = "Idempotency-Key in use or used for a different request"),
+            @ApiResponse(responseCode = "429", description = "Too many requests, retry after the Retry-After header")
     })
     @PostMapping(value = "/{iban}/withdraw")
-    public BalanceDTO withdraw(@PathVariable String iban, @RequestBody TransactionDTO transactionDTO) {
-        accountService.withdraw(iban, transactionDTO);
-        return accountService.getBalance(iban);
+    public BalanceDTO withdraw(@PathVariable String iban,
+                               @RequestBody TransactionDTO transactionDTO,
+                               @Parameter(description = IDEMPOTENCY_KEY_DESCRIPTION)
+                               @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                               Principal principal) {
+        return admissionControl.admit(principal, List.of(iban), () -> idempotencyService.execute(principal, idempotencyKey,
+                IdempotencyService.fingerprint("withdraw", iban, transactionDTO.amount()),
+                () -> accountService.withdraw(iban, transactionDTO)));
+    }
+
+    @Operation(summary = "Transfer between accounts", description = "Moves an amount from one account to another in a single transaction and returns the new balance of the source account")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Transfer successful",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = BalanceDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Account not found",
+                    content = @Content),
+            @ApiResponse(responseCode = "400", description = "Insufficient balance or invalid request"),
+            @ApiResponse(responseCode = "409", description = "Idempotency-Key in use or used for a different request"),
+            @ApiResponse(responseCode = "429", description = "Too many requests, retry after the Retry-After header")
+    })
+    @PostMapping(value = "/transfer")
+    public BalanceDTO transfer(@RequestBody @Validated TransferDTO transferDTO,
+                               @Parameter(description = IDEMPOTENCY_KEY_DESCRIPTION)
+                               @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                               Principal principal) {
+        var ibans = List.of(transferDTO.fromIban(), transferDTO.toIban());
+        return admissionControl.admit(principal, ibans, () -> idempotencyService.execute(principal, idempotencyKey,
+                IdempotencyService.fingerprint("transfer", transferDTO.fromIban(), transferDTO.toIban(), transferDTO.amount()),
+                () -> accountService.transfer(transferDTO)));
+    }
+
+    @Operation(summary = "Apply a batch of transactions",
+            description = "Applies deposits and withdrawals to several accounts in one database transaction and reports the outcome of each entry")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see each entry for its result",
+                    content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = BatchResultDTO.class)))),
+            @ApiResponse(responseCode = "400", description = "Invalid request"),
+            @ApiResponse(responseCode = "429", description = "Too many requests, retry after the Retry-After header")
+    })
+    @PostMapping(value = "/transactions/batch")
+    public List<BatchResultDTO> applyBatch(@RequestBody @Validated BatchRequestDTO batchRequestDTO, Principal principal) {
+        var transactions = batchRequestDTO.transactions();
+        var ibans = transactions.stream().map(BatchTransactionDTO::iban).toList();
+        return admissionControl.admit(principal, transactions.size(), ibans,
+                () -> accountService.applyBatch(transactions));
+    }
+
+    @Operation(summary = "Bulk import accounts",
+            description = "Opens an account for every customer in a CSV (text/csv) or NDJSON (application/x-ndjson) body. "
+                    + "The body is streamed and committed in chunks; sending the same file again with the same job id "
+                    + "resumes after the last committed record")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ImportResultDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid CSV header"),
+            @ApiResponse(responseCode = "415", description = "Unsupported import format")
+    })
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ImportResultDTO importAccounts(@Parameter(description = "Client chosen id used to resume an interrupted import")
+                                          @RequestParam String jobId,
+                                          @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                          InputStream body) throws IOException {
+        return accountImportService.importAccounts(jobId, body, ImportFormat.fromContentType(contentType));
     }
 }
@@ -0,0 +1,38 @@
+package com.rabo.bank.controller;
+
+import com.rabo.bank.dto.TokenDTO;
+import com.rabo.bank.service.TokenService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(path = "/auth")
+@SecurityRequirement(name = "basicAuth")
+public class AuthController {
+
+    private final TokenService tokenService;
+
+    public AuthController(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Operation(summary = "Issue an access token",
+            description = "Exchanges Basic credentials for a short-lived bearer token that is accepted on every other endpoint")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Token issued",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = TokenDTO.class))),
+            @ApiResponse(responseCode = "401", description = "Missing or invalid Basic credentials; bearer tokens are not accepted")
+    })
+    @PostMapping(value = "/token")
+    public TokenDTO issueToken(Authentication authentication) {
+        return tokenService.issueToken(authentication);
+    }
+}
@@ -0,0 +1,51 @@
+package com.rabo.bank.controller;
+
+import com.rabo.bank.dto.CustomerAccountsDTO;
+import com.rabo.bank.service.CustomerService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(path = "/customer")
+@SecurityRequirement(name = "basicAuth")
+@SecurityRequirement(name = "bearerAuth")
+public class CustomerController {
+
+    private final CustomerService customerService;
+
+    public CustomerController(CustomerService customerService) {
+        this.customerService = customerService;
+    }
+
+    @Operation(summary = "Get customer accounts", description = "Retrieves the customer with all of their accounts and balances")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Customer retrieved successfully",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CustomerAccountsDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Customer not found")
+    })
+    @GetMapping(value = "/{id}/accounts")
+    public CustomerAccountsDTO getCustomerAccounts(@PathVariable Long id) {
+        return customerService.getCustomerAccounts(id);
+    }
+
+    @Operation(summary = "Find customer accounts by e-mail",
+            description = "Retrieves the customer with the given e-mail address with all of their accounts and balances")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Customer retrieved successfully",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CustomerAccountsDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Customer not found")
+    })
+    @GetMapping(value = "/accounts")
+    public CustomerAccountsDTO getCustomerAccountsByEmail(@RequestParam String email) {
+        return customerService.getCustomerAccountsByEmail(email);
+    }
+}
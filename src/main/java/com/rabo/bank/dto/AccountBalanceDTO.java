@@ -0,0 +1,11 @@
+package com.rabo.bank.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.math.BigDecimal;
+
+public record AccountBalanceDTO(Long id,
+                                String iban,
+                                @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "#0.00")
+                                BigDecimal balance) {
+}
@@ -1,9 +1,70 @@
 package com.rabo.bank.dto;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.rabo.bank.money.Money;
+import io.swagger.v3.oas.annotations.media.Schema;
 
-import java.math.BigDecimal;
+import java.io.IOException;
 
-public record BalanceDTO(@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "#0.00")
-                         BigDecimal balance) {
+/**
+ * Balance in cents, written as {@code {"balance":"1500.00"}}. The (de)serializers work on the {@code long} directly,
+ * so a response does not allocate a {@code BigDecimal} or a {@code DecimalFormat}.
+ */
+@JsonSerialize(using = BalanceDTO.Serializer.class)
+@JsonDeserialize(using = BalanceDTO.Deserializer.class)
+public record BalanceDTO(@Schema(type = "string", format = "decimal", example = "1500.00")
+                         long balance) {
+
+    public static final class Serializer extends StdSerializer<BalanceDTO> {
+
+        private static final SerializedString BALANCE = new SerializedString("balance");
+        private static final ThreadLocal<char[]> BUFFER =
+                ThreadLocal.withInitial(() -> new char[Money.MAX_FORMATTED_LENGTH]);
+
+        public Serializer() {
+            super(BalanceDTO.class);
+        }
+
+        @Override
+        public void serialize(BalanceDTO value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            var buffer = BUFFER.get();
+            int start = Money.format(value.balance(), buffer);
+
+            generator.writeStartObject(value);
+            generator.writeFieldName(BALANCE);
+            generator.writeString(buffer, start, buffer.length - start);
+            generator.writeEndObject();
+        }
+    }
+
+    public static final class Deserializer extends StdDeserializer<BalanceDTO> {
+
+        public Deserializer() {
+            super(BalanceDTO.class);
+        }
+
+        @Override
+        public BalanceDTO deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            long balance = 0;
+            for (var token = parser.nextToken(); token != JsonToken.END_OBJECT; token = parser.nextToken()) {
+                var field = parser.currentName();
+                parser.nextToken();
+                if ("balance".equals(field)) {
+                    balance = Money.parse(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return new BalanceDTO(balance);
+        }
+    }
 }
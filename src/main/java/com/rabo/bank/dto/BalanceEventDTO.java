@@ -0,0 +1,20 @@
+package com.rabo.bank.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A change to an account as published by the outbox relay. The amount is signed, and the balance is the one the
+ * account had right after the change. Events may be delivered more than once; the id identifies redeliveries.
+ */
+public record BalanceEventDTO(long id,
+                              String iban,
+                              BalanceEventType type,
+                              @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "#0.00")
+                              BigDecimal amount,
+                              @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "#0.00")
+                              BigDecimal balance,
+                              Instant createdAt) {
+}
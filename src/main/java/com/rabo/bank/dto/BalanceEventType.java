@@ -0,0 +1,7 @@
+package com.rabo.bank.dto;
+
+public enum BalanceEventType {
+    ACCOUNT_OPENED,
+    DEPOSIT,
+    WITHDRAWAL
+}
@@ -0,0 +1,10 @@
+package com.rabo.bank.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record BatchRequestDTO(@NotEmpty List<@Valid @NotNull BatchTransactionDTO> transactions) {
+}
@@ -0,0 +1,12 @@
+package com.rabo.bank.dto;
+
+public record BatchResultDTO(int index, String iban, boolean success, String message) {
+
+    public static BatchResultDTO succeeded(int index, String iban) {
+        return new BatchResultDTO(index, iban, true, null);
+    }
+
+    public static BatchResultDTO failed(int index, String iban, String message) {
+        return new BatchResultDTO(index, iban, false, message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.rabo.bank.dto;
+
+import java.util.List;
+
+public record CustomerAccountsDTO(Long id,
+                                  String firstName,
+                                  String email,
+                                  String address,
+                                  List<AccountBalanceDTO> accounts) {
+}
@@ -0,0 +1,12 @@
+package com.rabo.bank.dto;
+
+import com.rabo.bank.entities.ImportJob;
+
+public record ImportResultDTO(String jobId, long processed, long imported, long duplicates, long rejected,
+                              boolean completed) {
+
+    public static ImportResultDTO of(ImportJob job) {
+        return new ImportResultDTO(job.getId(), job.getProcessed(), job.getImported(), job.getDuplicates(),
+                job.getRejected(), job.isCompleted());
+    }
+}
@@ -0,0 +1,13 @@
+package com.rabo.bank.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record StatementEntryDTO(Long id,
+                                @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "#0.00")
+                                BigDecimal amount,
+                                @JsonFormat(shape = JsonFormat.Shape.STRING)
+                                Instant createdAt) {
+}
@@ -0,0 +1,10 @@
+package com.rabo.bank.dto;
+
+import java.util.List;
+
+/**
+ * One page of an account statement. {@code nextCursor} is passed as {@code after} to fetch the following page and
+ * is {@code null} on the last page.
+ */
+public record StatementPageDTO(List<StatementEntryDTO> entries, Long nextCursor) {
+}
@@ -0,0 +1,4 @@
+package com.rabo.bank.dto;
+
+public record TokenDTO(String accessToken, String tokenType, long expiresIn) {
+}
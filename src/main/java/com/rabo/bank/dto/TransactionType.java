@@ -0,0 +1,6 @@
+package com.rabo.bank.dto;
+
+public enum TransactionType {
+    DEPOSIT,
+    WITHDRAW
+}
@@ -0,0 +1,11 @@
+package com.rabo.bank.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.math.BigDecimal;
+
+public record TransferDTO(@NotNull String fromIban,
+                          @NotNull String toIban,
+                          @NotNull @Positive BigDecimal amount) {
+}
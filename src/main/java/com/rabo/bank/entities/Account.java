@@ -1,24 +1,28 @@
 package com.rabo.bank.entities;
 
+import com.rabo.bank.money.MoneyConverter;
 import jakarta.persistence.*;
 
-import java.math.BigDecimal;
-
 @Entity
 public class Account {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_seq")
+    @SequenceGenerator(name = "account_seq", sequenceName = "account_seq", allocationSize = 50)
     private Long accountId;
     private Long customerId;
     private String iban;
-    private BigDecimal balance;
+    /**
+     * Balance in cents; stored as {@code DECIMAL(19, 2)}.
+     */
+    @Convert(converter = MoneyConverter.class)
+    private long balance;
     @Version
     private Long version;
 
     public Account() {
     }
 
-    public Account(Long customerId, String iban, BigDecimal balance) {
+    public Account(Long customerId, String iban, long balance) {
         this.customerId = customerId;
         this.iban = iban;
         this.balance = balance;
@@ -48,11 +52,11 @@ public class Account {
         this.iban = iban;
     }
 
-    public BigDecimal getBalance() {
+    public long getBalance() {
         return balance;
     }
 
-    public void setBalance(BigDecimal balance) {
+    public void setBalance(long balance) {
         this.balance = balance;
     }
 
@@ -0,0 +1,75 @@
+package com.rabo.bank.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "account_import_job")
+public class ImportJob {
+
+    @Id
+    private String id;
+    @Column(name = "processed_records")
+    private long processed;
+    private long imported;
+    private long duplicates;
+    private long rejected;
+    private boolean completed;
+    private Instant updatedAt;
+
+    public ImportJob() {
+    }
+
+    public ImportJob(String id) {
+        this.id = id;
+        this.updatedAt = Instant.now();
+    }
+
+    /**
+     * Records a committed chunk. {@code processed} is the position of the last record of the chunk in the input.
+     */
+    public void advance(long processed, long imported, long duplicates, long rejected) {
+        this.processed = processed;
+        this.imported += imported;
+        this.duplicates += duplicates;
+        this.rejected += rejected;
+        this.updatedAt = Instant.now();
+    }
+
+    public void complete() {
+        this.completed = true;
+        this.updatedAt = Instant.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
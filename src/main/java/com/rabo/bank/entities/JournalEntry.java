@@ -0,0 +1,68 @@
+package com.rabo.bank.entities;
+
+import com.rabo.bank.money.Money;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Entity
+@Table(name = "transaction_journal")
+public class JournalEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_journal_seq")
+    @SequenceGenerator(name = "transaction_journal_seq", sequenceName = "transaction_journal_seq", allocationSize = 50)
+    private Long id;
+    private String iban;
+    private BigDecimal amount;
+    private boolean folded;
+    private Instant createdAt;
+
+    public JournalEntry() {
+    }
+
+    public JournalEntry(String iban, BigDecimal amount, boolean folded) {
+        this(iban, amount, folded, Instant.now());
+    }
+
+    public JournalEntry(String iban, BigDecimal amount, boolean folded, Instant createdAt) {
+        this.iban = iban;
+        this.amount = amount;
+        this.folded = folded;
+        this.createdAt = createdAt;
+    }
+
+    public static JournalEntry applied(String iban, long cents) {
+        return new JournalEntry(iban, Money.toDecimal(cents), true);
+    }
+
+    public static JournalEntry pending(String iban, long cents) {
+        return new JournalEntry(iban, Money.toDecimal(cents), false);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getIban() {
+        return iban;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public boolean isFolded() {
+        return folded;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,93 @@
+package com.rabo.bank.entities;
+
+import com.rabo.bank.dto.BalanceEventDTO;
+import com.rabo.bank.dto.BalanceEventType;
+import com.rabo.bank.money.Money;
+import com.rabo.bank.money.MoneyConverter;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * A balance event waiting to be published. Amount and balance are in cents.
+ */
+@Entity
+@Table(name = "outbox_event")
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+    private Long id;
+    private String iban;
+    @Enumerated(EnumType.STRING)
+    private BalanceEventType type;
+    @Convert(converter = MoneyConverter.class)
+    private long amount;
+    @Convert(converter = MoneyConverter.class)
+    private long balance;
+    private Instant createdAt;
+
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(String iban, BalanceEventType type, long amount, long balance, Instant createdAt) {
+        this.iban = iban;
+        this.type = type;
+        this.amount = amount;
+        this.balance = balance;
+        this.createdAt = createdAt;
+    }
+
+    public static OutboxEvent accountOpened(String iban, long balance) {
+        return new OutboxEvent(iban, BalanceEventType.ACCOUNT_OPENED, 0, balance, Instant.now());
+    }
+
+    /**
+     * A deposit for a positive amount, a withdrawal for a negative one.
+     */
+    public static OutboxEvent movement(String iban, long amount, long balance) {
+        return movement(iban, amount, balance, Instant.now());
+    }
+
+    public static OutboxEvent movement(String iban, long amount, long balance, Instant createdAt) {
+        var type = amount < 0 ? BalanceEventType.WITHDRAWAL : BalanceEventType.DEPOSIT;
+        return new OutboxEvent(iban, type, amount, balance, createdAt);
+    }
+
+    public BalanceEventDTO toDTO() {
+        return new BalanceEventDTO(id, iban, type, Money.toDecimal(amount), Money.toDecimal(balance), createdAt);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getIban() {
+        return iban;
+    }
+
+    public BalanceEventType getType() {
+        return type;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public long getBalance() {
+        return balance;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,8 @@
+package com.rabo.bank.exception;
+
+public class ConcurrentUpdateException extends TransactionNotAllowedException {
+
+    public ConcurrentUpdateException(String message) {
+        super(message);
+    }
+}
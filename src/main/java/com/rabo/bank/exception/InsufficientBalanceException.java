@@ -0,0 +1,8 @@
+package com.rabo.bank.exception;
+
+public class InsufficientBalanceException extends TransactionNotAllowedException {
+
+    public InsufficientBalanceException() {
+        super("Insufficient balance");
+    }
+}
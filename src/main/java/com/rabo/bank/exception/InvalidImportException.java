@@ -0,0 +1,8 @@
+package com.rabo.bank.exception;
+
+public class InvalidImportException extends RuntimeException {
+
+    public InvalidImportException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,108 @@
+package com.rabo.bank.money;
+
+import com.rabo.bank.exception.TransactionNotAllowedException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Converts between the {@code BigDecimal} amounts of the API and database and the {@code long} count of cents
+ * the ledgers compute with. Amounts with more than two decimals are rounded half up, the way the
+ * {@code DECIMAL(19, 2)} balance column stores them.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    /**
+     * Characters needed to format any {@code long} amount of cents, e.g. {@code -92233720368547758.08}.
+     */
+    public static final int MAX_FORMATTED_LENGTH = 21;
+
+    private Money() {
+    }
+
+    public static long toCents(BigDecimal amount) {
+        try {
+            return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new TransactionNotAllowedException("Amount is out of range");
+        }
+    }
+
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    public static long add(long cents, long amount) {
+        try {
+            return Math.addExact(cents, amount);
+        } catch (ArithmeticException e) {
+            throw new TransactionNotAllowedException("Amount is out of range");
+        }
+    }
+
+    /**
+     * Writes the amount as {@code [-]units.cc} right-aligned into {@code buffer}, which must hold at least
+     * {@link #MAX_FORMATTED_LENGTH} characters, and returns the index of the first character written.
+     */
+    public static int format(long cents, char[] buffer) {
+        // Work on the negative value, so Long.MIN_VALUE needs no special case.
+        long remaining = cents < 0 ? cents : -cents;
+        int position = buffer.length;
+
+        for (int i = 0; i < SCALE; i++) {
+            buffer[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        }
+        buffer[--position] = '.';
+        do {
+            buffer[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+
+        if (cents < 0) {
+            buffer[--position] = '-';
+        }
+        return position;
+    }
+
+    /**
+     * Parses a plain decimal such as {@code 1500}, {@code 1500.5} or {@code -1500.00} into cents. Anything with more
+     * than two decimals or in exponent notation goes through {@link BigDecimal}.
+     */
+    public static long parse(char[] text, int offset, int length) {
+        int end = offset + length;
+        int position = offset;
+        boolean negative = position < end && text[position] == '-';
+        if (negative) {
+            position++;
+        }
+
+        long cents = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (; position < end; position++) {
+            char c = text[position];
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (c >= '0' && c <= '9' && decimals < SCALE && cents < Long.MAX_VALUE / 100) {
+                cents = cents * 10 + (c - '0');
+                digits++;
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else {
+                return toCents(new BigDecimal(text, offset, length));
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Not an amount: " + new String(text, offset, length));
+        }
+
+        for (int i = Math.max(decimals, 0); i < SCALE; i++) {
+            cents *= 10;
+        }
+        return negative ? -cents : cents;
+    }
+}
@@ -1,13 +1,52 @@
 package com.rabo.bank.repository;
 
 import com.rabo.bank.entities.Account;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
 
     Optional<Account> findByIban(String iban);
+
+    List<Account> findAllByIbanIn(Collection<String> ibans);
+
+    boolean existsByIban(String iban);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.iban = :iban")
+    Optional<Account> lockByIban(String iban);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.iban in :ibans order by a.iban")
+    List<Account> lockAllByIbanIn(Collection<String> ibans);
+
+    @Query("select a.balance from Account a where a.iban = :iban")
+    Optional<Long> findBalanceByIban(String iban);
+
+    // The queries below do arithmetic on the balance column, so they are native: the cents converter of
+    // Account.balance cannot be applied to a computed expression.
+
+    @Query(value = "SELECT a.balance + COALESCE((SELECT SUM(j.amount) FROM transaction_journal j "
+            + "WHERE j.iban = a.iban AND j.folded = FALSE), 0) FROM account a WHERE a.iban = :iban", nativeQuery = true)
+    Optional<BigDecimal> findJournalBalanceByIban(String iban);
+
+    @Modifying
+    @Query(value = "UPDATE account SET balance = balance + :amount, version = version + 1 WHERE iban = :iban",
+            nativeQuery = true)
+    int addToBalance(String iban, BigDecimal amount);
+
+    @Modifying
+    @Query(value = "UPDATE account SET balance = balance - :amount, version = version + 1 "
+            + "WHERE iban = :iban AND balance >= :amount", nativeQuery = true)
+    int subtractFromBalance(String iban, BigDecimal amount);
 }
@@ -0,0 +1,18 @@
+package com.rabo.bank.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of a customer joined with one of their accounts. The account columns are {@code null} for a customer
+ * without accounts. {@code balance} is the account's persisted balance in cents and {@code unfolded} the sum of its
+ * journal entries not yet folded into it.
+ */
+public record CustomerAccountRow(Long customerId,
+                                 String firstName,
+                                 String email,
+                                 String address,
+                                 Long accountId,
+                                 String iban,
+                                 Long balance,
+                                 BigDecimal unfolded) {
+}
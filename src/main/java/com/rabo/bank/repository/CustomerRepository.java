@@ -2,8 +2,33 @@ package com.rabo.bank.repository;
 
 import com.rabo.bank.entities.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
+
+    @Query("select c.email from Customer c where c.email in :emails")
+    Set<String> findExistingEmails(Collection<String> emails);
+
+    String WITH_ACCOUNTS = "select new com.rabo.bank.repository.CustomerAccountRow(c.id, c.firstName, c.email, "
+            + "c.address, a.accountId, a.iban, a.balance, "
+            + "(select sum(j.amount) from JournalEntry j where j.iban = a.iban and j.folded = false)) "
+            + "from Customer c left join Account a on a.customerId = c.id ";
+
+    /**
+     * Loads the customer and all of their accounts in one statement, one row per account.
+     */
+    @Query(WITH_ACCOUNTS + "where c.id = :id order by a.iban")
+    List<CustomerAccountRow> findWithAccountsById(Long id);
+
+    /**
+     * Same as {@link #findWithAccountsById}, looked up through the unique index on {@code customer.email}.
+     */
+    @Query(WITH_ACCOUNTS + "where c.email = :email order by a.iban")
+    List<CustomerAccountRow> findWithAccountsByEmail(String email);
 }
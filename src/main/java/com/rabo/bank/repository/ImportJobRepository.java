@@ -0,0 +1,9 @@
+package com.rabo.bank.repository;
+
+import com.rabo.bank.entities.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, String> {
+}
@@ -0,0 +1,43 @@
+package com.rabo.bank.repository;
+
+import com.rabo.bank.dto.StatementEntryDTO;
+import com.rabo.bank.entities.JournalEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface JournalEntryRepository extends JpaRepository<JournalEntry, Long> {
+
+    @Query("select distinct j.iban from JournalEntry j where j.folded = false")
+    List<String> findIbansWithUnfoldedEntries(Pageable pageable);
+
+    @Query("select j from JournalEntry j where j.iban = :iban and j.folded = false order by j.id")
+    List<JournalEntry> findUnfolded(String iban, Pageable pageable);
+
+    @Modifying
+    @Query("update JournalEntry j set j.folded = true where j.id in :ids")
+    int markFolded(Collection<Long> ids);
+
+    @Query("select new com.rabo.bank.dto.StatementEntryDTO(j.id, j.amount, j.createdAt) from JournalEntry j "
+            + "where j.iban = :iban and j.id > :after order by j.id")
+    List<StatementEntryDTO> findStatementPage(String iban, long after, Pageable pageable);
+
+    /**
+     * Streams the whole statement of an account as DTOs, which never enter the persistence context, fetching
+     * rows from the database in bounded batches. Must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.rabo.bank.dto.StatementEntryDTO(j.id, j.amount, j.createdAt) from JournalEntry j "
+            + "where j.iban = :iban order by j.id")
+    Stream<StatementEntryDTO> streamStatement(String iban);
+}
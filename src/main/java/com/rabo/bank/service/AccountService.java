@@ -1,105 +1,214 @@
 package com.rabo.bank.service;
 
+import com.rabo.bank.configuration.CacheConfig;
 import com.rabo.bank.dto.AccountDTO;
 import com.rabo.bank.dto.BalanceDTO;
+import com.rabo.bank.dto.BatchResultDTO;
+import com.rabo.bank.dto.BatchTransactionDTO;
 import com.rabo.bank.dto.CustomerDTO;
 import com.rabo.bank.dto.TransactionDTO;
+import com.rabo.bank.dto.TransferDTO;
 import com.rabo.bank.entities.Account;
 import com.rabo.bank.entities.Customer;
+import com.rabo.bank.entities.OutboxEvent;
 import com.rabo.bank.exception.AccountCreationException;
+import com.rabo.bank.exception.ConcurrentUpdateException;
+import com.rabo.bank.exception.InsufficientBalanceException;
 import com.rabo.bank.exception.TransactionNotAllowedException;
+import com.rabo.bank.money.Money;
 import com.rabo.bank.repository.AccountRepository;
+import com.rabo.bank.repository.OutboxEventRepository;
+import com.rabo.bank.service.ledger.GroupCommitLedger;
+import com.rabo.bank.service.ledger.Ledger;
+import com.rabo.bank.service.ledger.PendingTransfers;
+import com.rabo.bank.service.ledger.ShardedLedger;
+import com.rabo.bank.service.ledger.WriteStrategy;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.persistence.OptimisticLockException;
 import jakarta.validation.constraints.NotNull;
 import org.hibernate.exception.ConstraintViolationException;
-import org.iban4j.Iban;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
 
 @Service
 public class AccountService {
 
+    private static final String OPERATION_TIMER = "bank.account.operation";
+    private static final String REJECTION_COUNTER = "bank.account.rejections";
+
     private final AccountRepository accountRepository;
+    private final OutboxEventRepository outboxEventRepository;
     private final CustomerService customerService;
-
-    public AccountService(AccountRepository accountRepository, CustomerService customerService) {
+    private final IbanAllocator ibanAllocator;
+    private final ShardRouter shardRouter;
+    private final Ledger ledger;
+    private final ShardedLedger shardedLedger;
+    private final RetryPolicy retryPolicy;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache balances;
+    private final Counter optimisticLockConflicts;
+    private final Counter insufficientBalance;
+    private final Counter notFound;
+
+    public AccountService(AccountRepository accountRepository,
+                          OutboxEventRepository outboxEventRepository,
+                          CustomerService customerService,
+                          IbanAllocator ibanAllocator,
+                          ShardRouter shardRouter,
+                          List<Ledger> ledgers,
+                          @Value("${bank.account.write-strategy:OPTIMISTIC}") WriteStrategy writeStrategy,
+                          @Value("${bank.account.group-commit.window:0ms}") Duration groupCommitWindow,
+                          @Value("${bank.account.group-commit.max-size:500}") int groupCommitMaxSize,
+                          RetryPolicy retryPolicy,
+                          PendingTransfers pendingTransfers,
+                          PlatformTransactionManager transactionManager,
+                          CacheManager cacheManager,
+                          MeterRegistry meterRegistry) {
         this.accountRepository = accountRepository;
+        this.outboxEventRepository = outboxEventRepository;
         this.customerService = customerService;
+        this.ibanAllocator = ibanAllocator;
+        this.shardRouter = shardRouter;
+        this.retryPolicy = retryPolicy;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.balances = cacheManager.getCache(CacheConfig.BALANCES);
+
+        var selected = ledgers.stream()
+                .filter(candidate -> candidate.supports(writeStrategy))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No ledger available for write strategy " + writeStrategy));
+        this.shardedLedger = shardRouter.shardCount() > 1
+                ? new ShardedLedger(selected, shardRouter, retryPolicy, pendingTransfers, transactionManager,
+                        meterRegistry)
+                : null;
+        var routed = shardedLedger != null ? shardedLedger : selected;
+        this.ledger = groupCommitWindow.isZero()
+                ? routed
+                : new GroupCommitLedger(routed, groupCommitWindow, groupCommitMaxSize, meterRegistry);
+
+        this.optimisticLockConflicts = meterRegistry.counter(REJECTION_COUNTER, "reason", "optimistic_lock");
+        this.insufficientBalance = meterRegistry.counter(REJECTION_COUNTER, "reason", "insufficient_balance");
+        this.notFound = meterRegistry.counter(REJECTION_COUNTER, "reason", "not_found");
     }
 
-    @Transactional(propagation = Propagation.REQUIRED)
+    /**
+     * Opens the account on the shard of the customer's e-mail address, with an IBAN drawn to route to the same
+     * shard, so the customer and its account are written in one transaction and the unique e-mail constraint of
+     * that shard covers all of them. The IBAN is allocated before the transaction starts, because account numbers
+     * are reserved on the first shard.
+     */
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "open"}, histogram = true)
     public AccountDTO openAccount(@NotNull CustomerDTO customerDTO) {
-        try {
-            var customer = customerService.createCustomer(customerDTO);
+        var shard = shardRouter.shardOf(customerDTO.emailAddress());
+        var iban = shardRouter.firstOnShard(shard, ibanAllocator::nextIban);
 
-            var account = accountRepository.save(generateNewAccount(customer));
+        return shardRouter.onShard(shard, () -> transactionTemplate.execute(status -> {
+            try {
+                var customer = customerService.createCustomer(customerDTO);
 
-            return new AccountDTO(account.getAccountId(), customer.getAddress(), account.getIban());
-        } catch (ConstraintViolationException ex) {
-            throw new AccountCreationException("Customer already exists");
-        }
+                var account = accountRepository.save(generateNewAccount(customer, iban));
+                outboxEventRepository.save(OutboxEvent.accountOpened(account.getIban(), account.getBalance()));
+
+                return new AccountDTO(account.getAccountId(), customer.getAddress(), account.getIban());
+            } catch (ConstraintViolationException ex) {
+                throw new AccountCreationException("Customer already exists");
+            }
+        }));
     }
 
-    @Transactional(readOnly = true)
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "balance"}, histogram = true)
+    @Cacheable(cacheNames = CacheConfig.BALANCES, key = "#iban")
     public BalanceDTO getBalance(@NotNull String iban) {
-        var account = getAccount(iban);
-        return new BalanceDTO(account.getBalance());
+        return countRejections(() -> new BalanceDTO(ledger.balanceOf(iban)));
     }
 
-    @Transactional
-    public void deposit(@NotNull String iban, @NotNull TransactionDTO transactionDTO) {
-        var account = getAccount(iban);
-
-        var newBalance = account.getBalance().add(transactionDTO.amount());
-        account.setBalance(newBalance);
-
-        try {
-            accountRepository.save(account);
-        } catch (OptimisticLockException e) {
-            throw new TransactionNotAllowedException("Failed to update account balance due to concurrent modifications.");
-        }
-
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "deposit"}, histogram = true)
+    @CacheEvict(cacheNames = CacheConfig.BALANCES, key = "#iban")
+    public BalanceDTO deposit(@NotNull String iban, @NotNull TransactionDTO transactionDTO) {
+        var amount = Money.toCents(transactionDTO.amount());
+        return countRejections(() -> retryPolicy.execute(() -> new BalanceDTO(ledger.deposit(iban, amount))));
     }
 
-    @Transactional
-    public void withdraw(@NotNull String iban, @NotNull TransactionDTO transactionDTO) {
-        var account = getAccount(iban);
-
-        var newBalance = account.getBalance().subtract(transactionDTO.amount());
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "withdraw"}, histogram = true)
+    @CacheEvict(cacheNames = CacheConfig.BALANCES, key = "#iban")
+    public BalanceDTO withdraw(@NotNull String iban, @NotNull TransactionDTO transactionDTO) {
+        var amount = Money.toCents(transactionDTO.amount());
+        return countRejections(() -> retryPolicy.execute(() -> new BalanceDTO(ledger.withdraw(iban, amount))));
+    }
 
-        if (isNegativeBalance(newBalance)) {
-            throw new TransactionNotAllowedException("Insufficient balance");
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "transfer"}, histogram = true)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.BALANCES, key = "#transferDTO.fromIban()"),
+            @CacheEvict(cacheNames = CacheConfig.BALANCES, key = "#transferDTO.toIban()")
+    })
+    public BalanceDTO transfer(@NotNull TransferDTO transferDTO) {
+        if (transferDTO.fromIban().equals(transferDTO.toIban())) {
+            throw new TransactionNotAllowedException("Cannot transfer to the same account");
         }
 
-        account.setBalance(newBalance);
+        var amount = Money.toCents(transferDTO.amount());
+        return countRejections(() -> retryPolicy.execute(() -> new BalanceDTO(
+                ledger.transfer(transferDTO.fromIban(), transferDTO.toIban(), amount))));
+    }
 
+    /**
+     * Evicts the cached balance of every account in the batch, and only those, so a large batch does not empty the
+     * cache for everyone else. They are evicted even if the batch fails, since part of it may have been applied.
+     */
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "batch"}, histogram = true)
+    public List<BatchResultDTO> applyBatch(@NotNull List<BatchTransactionDTO> transactions) {
         try {
-            accountRepository.save(account);
-        } catch (OptimisticLockException e) {
-            throw new TransactionNotAllowedException("Failed to update account balance due to concurrent modifications.");
+            return countRejections(() -> retryPolicy.execute(() -> ledger.applyBatch(transactions)));
+        } finally {
+            for (var transaction : transactions) {
+                balances.evict(transaction.iban());
+            }
         }
     }
 
-    @NotNull
-    private Account getAccount(String iban) {
-        var account = accountRepository.findByIban(iban);
-
-        if (account.isEmpty()) {
-            throw new EntityNotFoundException("Account not found");
-        }
-
-        return account.get();
+    /**
+     * Completes or pays back the transfers between shards that were left pending, see {@link ShardedLedger}, and
+     * returns the IBANs whose balance changed. Without sharding no transfer is ever pending.
+     */
+    public List<String> settlePendingTransfers() {
+        return shardedLedger != null ? shardedLedger.settlePendingTransfers() : List.of();
     }
 
-    private boolean isNegativeBalance(BigDecimal newBalance) {
-        return newBalance.compareTo(BigDecimal.ZERO) < 0;
+    /**
+     * Counts the rejections callers care about when telling contention apart from bad requests, then rethrows.
+     * Optimistic lock failures surface either converted by the ledger or from the commit of its transaction, and
+     * are only counted once the retry policy has given up.
+     */
+    private <T> T countRejections(Supplier<T> operation) {
+        try {
+            return operation.get();
+        } catch (ConcurrentUpdateException | OptimisticLockingFailureException e) {
+            optimisticLockConflicts.increment();
+            throw e;
+        } catch (InsufficientBalanceException e) {
+            insufficientBalance.increment();
+            throw e;
+        } catch (EntityNotFoundException e) {
+            notFound.increment();
+            throw e;
+        }
     }
 
-    private Account generateNewAccount(Customer customer) {
-        return new Account(customer.getId(), Iban.random().toString(), BigDecimal.ZERO);
+    private Account generateNewAccount(Customer customer, String iban) {
+        return new Account(customer.getId(), iban, 0);
     }
 }
@@ -1,21 +1,72 @@
 package com.rabo.bank.service;
 
+import com.rabo.bank.dto.AccountBalanceDTO;
+import com.rabo.bank.dto.CustomerAccountsDTO;
 import com.rabo.bank.dto.CustomerDTO;
 import com.rabo.bank.entities.Customer;
+import com.rabo.bank.money.Money;
+import com.rabo.bank.repository.CustomerAccountRow;
 import com.rabo.bank.repository.CustomerRepository;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.util.List;
+
 @Service
 public class CustomerService {
 
     private final CustomerRepository customerRepository;
+    private final ShardRouter shardRouter;
 
-    public CustomerService(CustomerRepository customerRepository) {
+    public CustomerService(CustomerRepository customerRepository, ShardRouter shardRouter) {
         this.customerRepository = customerRepository;
+        this.shardRouter = shardRouter;
     }
 
     public Customer createCustomer(@NotNull CustomerDTO customerDTO) {
         return customerRepository.save(customerDTO.toEntity());
     }
+
+    /**
+     * Ids are unique across shards but do not say which shard holds the customer, so the shards are asked in turn.
+     * The lookups run in the read-only transaction of the repository query, started on the selected shard.
+     */
+    public CustomerAccountsDTO getCustomerAccounts(@NotNull Long id) {
+        return toCustomerAccounts(shardRouter.shards()
+                .mapToObj(shard -> shardRouter.onShard(shard, () -> customerRepository.findWithAccountsById(id)))
+                .filter(rows -> !rows.isEmpty())
+                .findFirst()
+                .orElse(List.of()));
+    }
+
+    public CustomerAccountsDTO getCustomerAccountsByEmail(@NotNull String email) {
+        return toCustomerAccounts(shardRouter.onShardOf(email, () -> customerRepository.findWithAccountsByEmail(email)));
+    }
+
+    /**
+     * Balances are the persisted balance plus the journal entries not folded into it yet, which is what the
+     * ledgers report for every write strategy except {@code IN_MEMORY}, whose latest movements only show up here
+     * once they are flushed.
+     */
+    private CustomerAccountsDTO toCustomerAccounts(List<CustomerAccountRow> rows) {
+        if (rows.isEmpty()) {
+            throw new EntityNotFoundException("Customer not found");
+        }
+
+        var accounts = rows.stream()
+                .filter(row -> row.accountId() != null)
+                .map(row -> new AccountBalanceDTO(row.accountId(), row.iban(), balanceOf(row)))
+                .toList();
+
+        var customer = rows.get(0);
+        return new CustomerAccountsDTO(customer.customerId(), customer.firstName(), customer.email(),
+                customer.address(), accounts);
+    }
+
+    private BigDecimal balanceOf(CustomerAccountRow row) {
+        var balance = Money.toDecimal(row.balance());
+        return row.unfolded() == null ? balance : balance.add(row.unfolded());
+    }
 }
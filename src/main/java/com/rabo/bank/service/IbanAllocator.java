@@ -0,0 +1,134 @@
+package com.rabo.bank.service;
+
+import org.iban4j.CountryCode;
+import org.iban4j.Iban;
+import org.iban4j.bban.BbanEntryType;
+import org.iban4j.bban.BbanStructure;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out IBANs for the configured country and bank code with sequential account numbers. Numbers are reserved
+ * from the {@code iban_block} table in blocks of {@code bank.iban.block-size}, in their own transaction, and served
+ * from an in-memory counter, so allocating an IBAN is a single atomic increment and every node gets disjoint ranges.
+ * <p>
+ * Numbers of a block that is not used up, for example on shutdown, are skipped rather than reused.
+ */
+@Component
+public class IbanAllocator {
+
+    private static final String RESERVE = "UPDATE iban_block SET next_number = next_number + ? WHERE country_code = ? AND bank_code = ?";
+    private static final String READ = "SELECT next_number FROM iban_block WHERE country_code = ? AND bank_code = ?";
+    private static final String CREATE = "INSERT INTO iban_block (country_code, bank_code, next_number) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CountryCode countryCode;
+    private final String bankCode;
+    private final int blockSize;
+    private final long maxAccountNumber;
+    private final String accountNumberFormat;
+
+    private volatile Block block = new Block(0, 0);
+
+    public IbanAllocator(JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${bank.iban.country-code:NL}") String countryCode,
+                         @Value("${bank.iban.bank-code:RABO}") String bankCode,
+                         @Value("${bank.iban.block-size:1000}") int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.countryCode = CountryCode.getByCode(countryCode);
+        this.bankCode = bankCode;
+        this.blockSize = Math.max(1, blockSize);
+
+        if (this.countryCode == null || BbanStructure.forCountry(this.countryCode) == null) {
+            throw new IllegalArgumentException("IBAN country not supported: " + countryCode);
+        }
+        var length = BbanStructure.forCountry(this.countryCode).getEntries().stream()
+                .filter(entry -> entry.getEntryType() == BbanEntryType.account_number)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("IBAN country has no account number: " + countryCode))
+                .getLength();
+        this.maxAccountNumber = (long) Math.pow(10, Math.min(length, 18)) - 1;
+        this.accountNumberFormat = "%0" + length + "d";
+    }
+
+    public String nextIban() {
+        while (true) {
+            var current = block;
+            long number = current.next.getAndIncrement();
+            if (number < current.end) {
+                return format(number);
+            }
+            refill(current);
+        }
+    }
+
+    private synchronized void refill(Block exhausted) {
+        if (block == exhausted) {
+            long end = reserve();
+            block = new Block(end - blockSize, end);
+        }
+    }
+
+    /**
+     * Moves the stored next number forward by one block and returns the new value, which is the exclusive end
+     * of the reserved block. The row lock taken by the update serializes reservations across nodes.
+     */
+    private long reserve() {
+        Long end;
+        while ((end = transactionTemplate.execute(status -> reserveBlock())) == null) {
+            createRow();
+        }
+
+        if (end - 1 > maxAccountNumber) {
+            throw new IllegalStateException("No account numbers left for " + countryCode.getAlpha2() + " " + bankCode);
+        }
+        return end;
+    }
+
+    private Long reserveBlock() {
+        if (jdbcTemplate.update(RESERVE, blockSize, countryCode.getAlpha2(), bankCode) == 0) {
+            return null;
+        }
+        return jdbcTemplate.queryForObject(READ, Long.class, countryCode.getAlpha2(), bankCode);
+    }
+
+    private void createRow() {
+        try {
+            transactionTemplate.executeWithoutResult(
+                    status -> jdbcTemplate.update(CREATE, countryCode.getAlpha2(), bankCode, 1L));
+        } catch (DuplicateKeyException e) {
+            // Another node created the row first.
+        }
+    }
+
+    private String format(long number) {
+        return new Iban.Builder()
+                .countryCode(countryCode)
+                .bankCode(bankCode)
+                .accountNumber(accountNumberFormat.formatted(number))
+                .build()
+                .toString();
+    }
+
+    private static final class Block {
+
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
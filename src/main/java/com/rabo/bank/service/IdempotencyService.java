@@ -0,0 +1,223 @@
+package com.rabo.bank.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rabo.bank.dto.BalanceDTO;
+import com.rabo.bank.exception.IdempotencyConflictException;
+import com.rabo.bank.exception.TransactionNotAllowedException;
+import com.rabo.bank.money.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.security.Principal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Makes balance mutations sent with an {@code Idempotency-Key} header safe to retry. Keys are scoped to the
+ * authenticated client.
+ * <p>
+ * The first request with a key claims it by inserting a row into {@code idempotency_key}. The primary key makes
+ * concurrent duplicates on any node see the claim, and only the owner runs the mutation. Its result is stored on the
+ * row and in a bounded in-memory cache, so a retry is usually answered from memory without touching the database.
+ * If the mutation fails the claim is released, so the retry runs it again. Keys expire after
+ * {@code bank.idempotency.ttl}.
+ * <p>
+ * The claim and the result are written in their own transactions, because the mutation may commit on another shard,
+ * on another thread (group commit) or only in memory. A claim is leased for {@code bank.idempotency.lease}, and its
+ * owner extends the lease every {@code bank.idempotency.renew-interval-ms} while the mutation runs and until the
+ * result is stored, retrying a result that could not be stored at first. Only a claim whose owner stopped renewing
+ * it, because the process died, is taken over by the next request with the key, which then runs the mutation again.
+ * Storing the result and releasing the claim only succeed while the claim is still held, so an owner that lost its
+ * claim never overwrites the outcome of the request that took it over.
+ * <p>
+ * This leaves one window: a process that dies after the mutation committed but before its result was stored lets
+ * the mutation run a second time once the lease has expired. Closing it would take storing the result in the
+ * mutation's own transaction, which is not possible for every ledger.
+ */
+@Service
+public class IdempotencyService {
+
+    static final int MAX_KEY_LENGTH = 100;
+
+    private static final String CLAIM = "INSERT INTO idempotency_key "
+            + "(id, fingerprint, claim_token, leased_until, created_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String TAKE_OVER = "UPDATE idempotency_key SET claim_token = ?, leased_until = ? "
+            + "WHERE id = ? AND fingerprint = ? AND balance IS NULL AND leased_until < ?";
+    private static final String RENEW = "UPDATE idempotency_key SET leased_until = ? "
+            + "WHERE id = ? AND claim_token = ? AND balance IS NULL";
+    private static final String COMPLETE = "UPDATE idempotency_key SET balance = ?, claim_token = NULL "
+            + "WHERE id = ? AND claim_token = ?";
+    private static final String RELEASE = "DELETE FROM idempotency_key "
+            + "WHERE id = ? AND claim_token = ? AND balance IS NULL";
+    private static final String FIND = "SELECT fingerprint, balance FROM idempotency_key WHERE id = ?";
+    private static final String PURGE = "DELETE FROM idempotency_key WHERE created_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final Duration lease;
+    private final Cache<String, Outcome> outcomes;
+    private final Map<String, Claim> held = new ConcurrentHashMap<>();
+
+    public IdempotencyService(JdbcTemplate jdbcTemplate,
+                              @Value("${bank.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${bank.idempotency.lease:1m}") Duration lease,
+                              @Value("${bank.idempotency.cache.maximum-size:100000}") long maximumSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+        this.lease = lease;
+        this.outcomes = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Runs {@code operation} once per key. {@code fingerprint} identifies the request, so reusing a key for a
+     * different request is rejected instead of answered with an unrelated result.
+     */
+    public BalanceDTO execute(Principal principal, String key, String fingerprint, Supplier<BalanceDTO> operation) {
+        if (key == null || key.isBlank()) {
+            return operation.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new TransactionNotAllowedException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        var id = (principal == null ? "" : principal.getName()) + ":" + key;
+        var token = UUID.randomUUID().toString();
+        var outcome = outcomes.getIfPresent(id);
+        if (outcome == null) {
+            outcome = claim(id, fingerprint, token);
+        }
+        if (outcome != null) {
+            return replay(outcome, fingerprint);
+        }
+
+        held.put(id, new Claim(token, null));
+        BalanceDTO result;
+        try {
+            result = operation.get();
+        } catch (RuntimeException e) {
+            held.remove(id);
+            jdbcTemplate.update(RELEASE, id, token);
+            throw e;
+        }
+
+        outcomes.put(id, new Outcome(fingerprint, result.balance()));
+        var claim = new Claim(token, result.balance());
+        held.put(id, claim);
+        complete(id, claim);
+        return result;
+    }
+
+    /**
+     * Builds the fingerprint of a request from its operation and arguments. Amounts are compared by value.
+     */
+    public static String fingerprint(String operation, Object... arguments) {
+        var fingerprint = new StringBuilder(operation);
+        for (var argument : arguments) {
+            fingerprint.append(':').append(argument instanceof BigDecimal amount
+                    ? amount.stripTrailingZeros().toPlainString()
+                    : argument);
+        }
+        return fingerprint.toString();
+    }
+
+    @Scheduled(fixedDelayString = "${bank.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        jdbcTemplate.update(PURGE, OffsetDateTime.now(ZoneOffset.UTC).minus(ttl));
+    }
+
+    /**
+     * Extends the leases of the claims held by running requests, and stores the results that could not be stored
+     * when their request finished. A claim that was taken over in the meantime is dropped.
+     */
+    @Scheduled(fixedDelayString = "${bank.idempotency.renew-interval-ms:10000}")
+    public void renewLeases() {
+        var leasedUntil = OffsetDateTime.now(ZoneOffset.UTC).plus(lease);
+        held.forEach((id, claim) -> {
+            if (claim.balance() != null) {
+                complete(id, claim);
+            } else if (jdbcTemplate.update(RENEW, leasedUntil, id, claim.token()) == 0) {
+                held.remove(id, claim);
+            }
+        });
+    }
+
+    /**
+     * Stores the result of a claim still held. A result that cannot be stored yet stays held, so its lease keeps
+     * being extended and storing it is retried by {@link #renewLeases()}, instead of letting the claim expire while
+     * the mutation has already been applied.
+     */
+    private void complete(String id, Claim claim) {
+        try {
+            jdbcTemplate.update(COMPLETE, Money.toDecimal(claim.balance()), id, claim.token());
+            held.remove(id, claim);
+        } catch (DataAccessException e) {
+            // Retried on the next renewal; retries on this node are answered from the outcome cache meanwhile
+        }
+    }
+
+    /**
+     * Claims the key for this request. Returns {@code null} when the claim succeeded, or the stored outcome when
+     * another request completed it first. A claim whose lease has expired is taken over.
+     */
+    private Outcome claim(String id, String fingerprint, String token) {
+        while (true) {
+            var now = OffsetDateTime.now(ZoneOffset.UTC);
+            try {
+                jdbcTemplate.update(CLAIM, id, fingerprint, token, now.plus(lease), now);
+                return null;
+            } catch (DuplicateKeyException e) {
+                var rows = jdbcTemplate.queryForList(FIND, id);
+                if (rows.isEmpty()) {
+                    // The owner failed and released the key in the meantime; claim it again.
+                    continue;
+                }
+
+                var row = rows.get(0);
+                var storedFingerprint = (String) row.get("fingerprint");
+                if (!storedFingerprint.equals(fingerprint)) {
+                    throw new IdempotencyConflictException("Idempotency-Key was already used for a different request");
+                }
+                if (row.get("balance") == null) {
+                    if (jdbcTemplate.update(TAKE_OVER, token, now.plus(lease), id, fingerprint, now) == 1) {
+                        return null;
+                    }
+                    throw new IdempotencyConflictException("A request with this Idempotency-Key is still in progress");
+                }
+
+                var outcome = new Outcome(storedFingerprint, Money.toCents((BigDecimal) row.get("balance")));
+                outcomes.put(id, outcome);
+                return outcome;
+            }
+        }
+    }
+
+    private BalanceDTO replay(Outcome outcome, String fingerprint) {
+        if (!outcome.fingerprint().equals(fingerprint)) {
+            throw new IdempotencyConflictException("Idempotency-Key was already used for a different request");
+        }
+        return new BalanceDTO(outcome.balance());
+    }
+
+    private record Outcome(String fingerprint, long balance) {
+    }
+
+    /**
+     * A claim held by a request on this node, with the resulting balance once the mutation has run.
+     */
+    private record Claim(String token, Long balance) {
+    }
+}
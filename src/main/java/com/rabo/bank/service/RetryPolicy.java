@@ -0,0 +1,61 @@
+package com.rabo.bank.service;
+
+import com.rabo.bank.exception.ConcurrentUpdateException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Retries an operation that lost an optimistic locking race. Each retry waits a random time between zero and an
+ * exponentially growing cap (full jitter), so writers that collided once do not collide again in lockstep.
+ * <p>
+ * The operation must run its own transaction: retrying inside a transaction that already failed would reuse
+ * the stale persistence context.
+ */
+@Component
+public class RetryPolicy {
+
+    private static final String RETRY_COUNTER = "bank.account.retries";
+    private static final int MAX_BACKOFF_SHIFT = 10;
+
+    private final int maxAttempts;
+    private final long backoffNanos;
+    private final Counter retries;
+
+    public RetryPolicy(@Value("${bank.account.retry.max-attempts:3}") int maxAttempts,
+                       @Value("${bank.account.retry.backoff:5ms}") Duration backoff,
+                       MeterRegistry meterRegistry) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffNanos = backoff.toNanos();
+        this.retries = meterRegistry.counter(RETRY_COUNTER);
+    }
+
+    public <T> T execute(Supplier<T> operation) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return operation.get();
+            } catch (ConcurrentUpdateException | OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                retries.increment();
+                backOff(attempt);
+            }
+        }
+    }
+
+    private void backOff(int attempt) {
+        if (backoffNanos <= 0) {
+            return;
+        }
+        long cap = backoffNanos << Math.min(attempt - 1, MAX_BACKOFF_SHIFT);
+        LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(cap + 1));
+    }
+}
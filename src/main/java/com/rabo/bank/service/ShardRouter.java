@@ -0,0 +1,148 @@
+package com.rabo.bank.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Maps keys such as IBANs and e-mail addresses onto the shards listed in {@code bank.sharding.urls}, and selects the
+ * shard the current thread works on. Without sharding there is a single shard and every call runs as is.
+ * <p>
+ * Keys are placed on a consistent hash ring with {@code bank.sharding.virtual-nodes} points per shard. A shard is
+ * identified by its position in the list, so appending a shard only moves the keys the new shard takes over.
+ * <p>
+ * The shard is picked when a transaction obtains its connection, so {@link #onShard} must be entered before the
+ * transaction starts; switching to another shard inside a transaction is rejected. Work that belongs to no account,
+ * such as IBAN allocation, idempotency keys and import progress, runs outside any shard and goes to the first shard.
+ */
+@Component
+public class ShardRouter {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private final int shardCount;
+    private final long[] points;
+    private final int[] owners;
+
+    public ShardRouter(@Value("${bank.sharding.urls:}") List<String> urls,
+                       @Value("${bank.sharding.virtual-nodes:256}") int virtualNodes) {
+        this.shardCount = Math.max(1, urls.size());
+
+        var perShard = Math.max(1, virtualNodes);
+        var ring = new long[shardCount * perShard][];
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int node = 0; node < perShard; node++) {
+                ring[shard * perShard + node] = new long[]{hash("shard-" + shard + "#" + node), shard};
+            }
+        }
+        Arrays.sort(ring, (left, right) -> Long.compare(left[0], right[0]));
+
+        this.points = new long[ring.length];
+        this.owners = new int[ring.length];
+        for (int i = 0; i < ring.length; i++) {
+            points[i] = ring[i][0];
+            owners[i] = (int) ring[i][1];
+        }
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public IntStream shards() {
+        return IntStream.range(0, shardCount);
+    }
+
+    /**
+     * Returns the shard owning the first ring point at or after the hash of the key.
+     */
+    public int shardOf(String key) {
+        if (shardCount == 1) {
+            return 0;
+        }
+
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * The shard selected for the current thread, or {@code null} for the first shard.
+     */
+    public Integer currentShard() {
+        return CURRENT.get();
+    }
+
+    public <T> T onShard(int shard, Supplier<T> operation) {
+        if (shardCount == 1) {
+            return operation.get();
+        }
+
+        var previous = CURRENT.get();
+        var active = previous == null ? 0 : previous;
+        if (active != shard && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Cannot switch to shard " + shard + " inside a transaction on shard " + active);
+        }
+
+        CURRENT.set(shard);
+        try {
+            return operation.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public <T> T onShardOf(String key, Supplier<T> operation) {
+        return onShard(shardOf(key), operation);
+    }
+
+    public void runOnShard(int shard, Runnable operation) {
+        onShard(shard, () -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    /**
+     * Draws keys until one falls on the given shard, e.g. to pick an IBAN for an account that has to live next to
+     * its customer. Keys are spread evenly, so this takes {@link #shardCount()} draws on average.
+     */
+    public String firstOnShard(int shard, Supplier<String> candidates) {
+        while (true) {
+            var candidate = candidates.get();
+            if (shardOf(candidate) == shard) {
+                return candidate;
+            }
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a followed by the MurmurHash3 finalizer, so ring positions are stable across JVMs and nearby keys
+     * such as sequential IBANs spread over the whole ring.
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,110 @@
+package com.rabo.bank.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabo.bank.dto.StatementEntryDTO;
+import com.rabo.bank.dto.StatementPageDTO;
+import com.rabo.bank.repository.AccountRepository;
+import com.rabo.bank.repository.JournalEntryRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Account statements read from {@code transaction_journal}, which every write strategy fills. Pages use keyset
+ * pagination on the journal id, so fetching a late page costs the same as the first one. Each read runs in a
+ * read-only transaction on the shard of the account.
+ */
+@Service
+public class StatementService {
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private final AccountRepository accountRepository;
+    private final JournalEntryRepository journalEntryRepository;
+    private final ObjectMapper objectMapper;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public StatementService(AccountRepository accountRepository,
+                            JournalEntryRepository journalEntryRepository,
+                            ObjectMapper objectMapper,
+                            ShardRouter shardRouter,
+                            PlatformTransactionManager transactionManager) {
+        this.accountRepository = accountRepository;
+        this.journalEntryRepository = journalEntryRepository;
+        this.objectMapper = objectMapper;
+        this.shardRouter = shardRouter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public StatementPageDTO getStatement(String iban, long after, int size) {
+        return shardRouter.onShardOf(iban, () -> readOnlyTransaction.execute(status -> {
+            requireAccount(iban);
+
+            var limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+            var entries = journalEntryRepository.findStatementPage(iban, after, Pageable.ofSize(limit));
+            var nextCursor = entries.size() == limit ? entries.get(entries.size() - 1).id() : null;
+
+            return new StatementPageDTO(entries, nextCursor);
+        }));
+    }
+
+    public void requireAccount(String iban) {
+        if (!shardRouter.onShardOf(iban, () -> accountRepository.existsByIban(iban))) {
+            throw new EntityNotFoundException("Account not found");
+        }
+    }
+
+    /**
+     * Writes the full statement of an account as it is read, one entry per line. Only the current row is held
+     * in memory, however long the statement is.
+     */
+    public void writeStatement(String iban, StatementFormat format, OutputStream out) throws IOException {
+        try {
+            shardRouter.runOnShard(shardRouter.shardOf(iban), () -> readOnlyTransaction.executeWithoutResult(status -> {
+                try {
+                    writeEntries(iban, format, out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeEntries(String iban, StatementFormat format, OutputStream out) throws IOException {
+        var writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == StatementFormat.CSV) {
+            writer.write("id,amount,createdAt\n");
+        }
+
+        try (var entries = journalEntryRepository.streamStatement(iban)) {
+            var iterator = entries.iterator();
+            while (iterator.hasNext()) {
+                write(writer, iterator.next(), format);
+            }
+        }
+        writer.flush();
+    }
+
+    private void write(Writer writer, StatementEntryDTO entry, StatementFormat format) throws IOException {
+        if (format == StatementFormat.CSV) {
+            writer.write(entry.id() + "," + entry.amount().toPlainString() + "," + entry.createdAt());
+        } else {
+            writer.write(objectMapper.writeValueAsString(entry));
+        }
+        writer.write('\n');
+    }
+}
@@ -0,0 +1,45 @@
+package com.rabo.bank.service;
+
+import com.rabo.bank.dto.TokenDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Issues HMAC-signed JWTs for an authenticated user. They are verified locally by the resource server
+ * configured in {@link com.rabo.bank.configuration.SecurityConfig}, without a user lookup or password hash.
+ */
+@Service
+public class TokenService {
+
+    public static final String ISSUER = "bank";
+    public static final MacAlgorithm ALGORITHM = MacAlgorithm.HS256;
+
+    private final JwtEncoder jwtEncoder;
+    private final Duration ttl;
+
+    public TokenService(JwtEncoder jwtEncoder, @Value("${bank.security.token.ttl:15m}") Duration ttl) {
+        this.jwtEncoder = jwtEncoder;
+        this.ttl = ttl;
+    }
+
+    public TokenDTO issueToken(Authentication authentication) {
+        var now = Instant.now();
+        var claims = JwtClaimsSet.builder()
+                .issuer(ISSUER)
+                .subject(authentication.getName())
+                .issuedAt(now)
+                .expiresAt(now.plus(ttl))
+                .build();
+        var token = jwtEncoder.encode(JwtEncoderParameters.from(JwsHeader.with(ALGORITHM).build(), claims));
+        return new TokenDTO(token.getTokenValue(), "Bearer", ttl.toSeconds());
+    }
+}
@@ -0,0 +1,34 @@
+package com.rabo.bank.service;
+
+import com.rabo.bank.configuration.CacheConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically settles the transfers between shards that a failed or interrupted request left pending, and evicts
+ * the cached balances of the accounts they completed or paid back.
+ */
+@Component
+@ConditionalOnProperty(name = "bank.sharding.urls")
+public class TransferRecovery {
+
+    private final AccountService accountService;
+    private final CacheManager cacheManager;
+
+    public TransferRecovery(AccountService accountService, CacheManager cacheManager) {
+        this.accountService = accountService;
+        this.cacheManager = cacheManager;
+    }
+
+    @Scheduled(fixedDelayString = "${bank.sharding.transfer-recovery.interval-ms:10000}")
+    public void settle() {
+        var balances = cacheManager.getCache(CacheConfig.BALANCES);
+        for (var iban : accountService.settlePendingTransfers()) {
+            if (balances != null) {
+                balances.evict(iban);
+            }
+        }
+    }
+}
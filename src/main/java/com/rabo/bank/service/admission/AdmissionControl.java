@@ -0,0 +1,125 @@
+package com.rabo.bank.service.admission;
+
+import com.rabo.bank.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Rejects balance mutations before they reach the database when a client or an account sends more than its share,
+ * or when {@code bank.admission.max-concurrent-writes} mutations are already running. A rejected request fails at
+ * once with {@link RateLimitExceededException} instead of waiting for a connection or losing an optimistic locking
+ * race against the requests that got in.
+ * <p>
+ * Clients, keyed by the authenticated principal, and accounts, keyed by IBAN, each get a token bucket, see
+ * {@link TokenBuckets}. A request takes a token per movement from its client's bucket, so a batch costs as much as
+ * its entries sent one by one, and a token per movement from the bucket of every account it moves money on. Tokens
+ * taken before a later bucket or the write limit rejects the request are given back.
+ * <p>
+ * Account buckets are off unless {@code bank.admission.iban.rate} is set. They count requests before
+ * {@link com.rabo.bank.service.ledger.GroupCommitLedger} merges them, so with group commit they have to admit the
+ * hot accounts' full deposit rate, and {@code bank.admission.max-concurrent-writes} bounds how many deposits can wait
+ * in one group.
+ */
+@Service
+public class AdmissionControl {
+
+    private static final String REJECTION_COUNTER = "bank.admission.rejections";
+    private static final Duration CONCURRENCY_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final boolean enabled;
+    private final TokenBuckets clients;
+    private final TokenBuckets accounts; // null when account buckets are off
+    private final Semaphore writes;
+    private final Counter clientRejections;
+    private final Counter accountRejections;
+    private final Counter concurrencyRejections;
+
+    public AdmissionControl(@Value("${bank.admission.enabled:true}") boolean enabled,
+                            @Value("${bank.admission.client.rate:1000}") double clientRate,
+                            @Value("${bank.admission.client.burst:2000}") int clientBurst,
+                            @Value("${bank.admission.iban.rate:0}") double ibanRate,
+                            @Value("${bank.admission.iban.burst:400}") int ibanBurst,
+                            @Value("${bank.admission.max-tracked-keys:100000}") long maxTrackedKeys,
+                            @Value("${bank.admission.max-concurrent-writes:32}") int maxConcurrentWrites,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.clients = new TokenBuckets(clientRate, clientBurst, maxTrackedKeys, System::nanoTime);
+        this.accounts = ibanRate > 0 ? new TokenBuckets(ibanRate, ibanBurst, maxTrackedKeys, System::nanoTime) : null;
+        this.writes = new Semaphore(Math.max(1, maxConcurrentWrites));
+        this.clientRejections = meterRegistry.counter(REJECTION_COUNTER, "reason", "client");
+        this.accountRejections = meterRegistry.counter(REJECTION_COUNTER, "reason", "iban");
+        this.concurrencyRejections = meterRegistry.counter(REJECTION_COUNTER, "reason", "concurrency");
+    }
+
+    /**
+     * Runs a single movement if the client, every account in {@code ibans} and the write path all admit it.
+     */
+    public <T> T admit(Principal principal, Collection<String> ibans, Supplier<T> mutation) {
+        return admit(principal, 1, ibans, mutation);
+    }
+
+    /**
+     * Runs {@code movements} movements at once if the client, every account in {@code ibans} and the write path all
+     * admit them. {@code ibans} holds an IBAN once for every movement on that account.
+     */
+    public <T> T admit(Principal principal, int movements, Collection<String> ibans, Supplier<T> mutation) {
+        if (!enabled) {
+            return mutation.get();
+        }
+
+        var client = principal == null ? "" : principal.getName();
+        take(clients, client, movements, clientRejections, "Too many requests from this client");
+
+        var taken = new LinkedHashMap<String, Integer>();
+        try {
+            if (accounts != null) {
+                var perIban = new LinkedHashMap<String, Integer>();
+                for (var iban : ibans) {
+                    perIban.merge(iban, 1, Integer::sum);
+                }
+                for (var entry : perIban.entrySet()) {
+                    take(accounts, entry.getKey(), entry.getValue(), accountRejections,
+                            "Too many requests for account " + entry.getKey());
+                    taken.put(entry.getKey(), entry.getValue());
+                }
+            }
+
+            if (!writes.tryAcquire()) {
+                concurrencyRejections.increment();
+                throw new RateLimitExceededException("Too many concurrent writes", CONCURRENCY_RETRY_AFTER);
+            }
+        } catch (RateLimitExceededException e) {
+            giveBack(client, movements, taken);
+            throw e;
+        }
+
+        try {
+            return mutation.get();
+        } finally {
+            writes.release();
+        }
+    }
+
+    private void take(TokenBuckets buckets, String key, int tokens, Counter rejections, String message) {
+        var wait = buckets.tryTake(key, tokens);
+        if (wait > 0) {
+            rejections.increment();
+            throw new RateLimitExceededException(message, Duration.ofNanos(wait));
+        }
+    }
+
+    private void giveBack(String client, int movements, Map<String, Integer> taken) {
+        clients.giveBack(client, movements);
+        taken.forEach((iban, tokens) -> accounts.giveBack(iban, tokens));
+    }
+}
@@ -0,0 +1,84 @@
+package com.rabo.bank.service.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * One token bucket per key, each holding up to {@code burst} tokens and refilled at {@code rate} tokens per second.
+ * <p>
+ * A bucket is a single {@code long}: the time at which it will be full again (the generic cell rate algorithm).
+ * Taking a token pushes that time forward by the refill interval of one token, with a compare-and-set, so callers
+ * never block each other. Tokens given back pull it back by the same amount. A bucket that has not been touched for as long as a full refill takes is full, so it is
+ * evicted and recreated on the next request without changing the outcome. At most {@code maximumKeys} buckets are
+ * kept; beyond that the least recently used are evicted early, which only ever lets their keys through sooner.
+ */
+final class TokenBuckets {
+
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final LongSupplier clock;
+    private final Cache<String, AtomicLong> buckets;
+
+    TokenBuckets(double rate, int burst, long maximumKeys, LongSupplier clock) {
+        this.nanosPerToken = Math.max(1, (long) (Duration.ofSeconds(1).toNanos() / rate));
+        this.burstNanos = Math.multiplyExact(nanosPerToken, Math.max(1, burst));
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(Duration.ofNanos(burstNanos))
+                .build();
+    }
+
+    /**
+     * Takes a token from the bucket of the key. Returns zero when a token was taken, otherwise how long the caller
+     * has to wait for one, in nanoseconds.
+     */
+    long tryTake(String key) {
+        return tryTake(key, 1);
+    }
+
+    /**
+     * Takes {@code tokens} tokens from the bucket of the key, all or none. More tokens than the burst are taken as
+     * the whole burst, so such a request is admitted once the bucket is full. Returns zero when the tokens were
+     * taken, otherwise how long the caller has to wait for them, in nanoseconds.
+     */
+    long tryTake(String key, int tokens) {
+        var cost = cost(tokens);
+        var now = clock.getAsLong();
+        var fullAt = buckets.get(key, k -> new AtomicLong(now));
+        while (true) {
+            var current = fullAt.get();
+            var next = Math.max(current, now) + cost;
+            if (next - now > burstNanos) {
+                return next - now - burstNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives back {@code tokens} tokens taken from the bucket of the key by a request that was not admitted after all.
+     * A bucket that has been evicted in the meantime is full already.
+     */
+    void giveBack(String key, int tokens) {
+        var fullAt = buckets.getIfPresent(key);
+        if (fullAt != null) {
+            fullAt.addAndGet(-cost(tokens));
+        }
+    }
+
+    private long cost(int tokens) {
+        return Math.min(burstNanos, Math.multiplyExact(nanosPerToken, (long) Math.max(1, tokens)));
+    }
+
+    long size() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,135 @@
+package com.rabo.bank.service.ledger;
+
+import com.rabo.bank.dto.BatchResultDTO;
+import com.rabo.bank.dto.BatchTransactionDTO;
+import com.rabo.bank.entities.JournalEntry;
+import com.rabo.bank.entities.OutboxEvent;
+import com.rabo.bank.exception.InsufficientBalanceException;
+import com.rabo.bank.money.Money;
+import com.rabo.bank.repository.AccountRepository;
+import com.rabo.bank.repository.JournalEntryRepository;
+import com.rabo.bank.repository.OutboxEventRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Applies each movement as one conditional UPDATE, so there is no load-then-save window for a concurrent writer
+ * to invalidate. The resulting balance is read back inside the same transaction while the row is still locked.
+ */
+@Component
+public class AtomicLedger implements Ledger {
+
+    private final AccountRepository accountRepository;
+    private final JournalEntryRepository journalEntryRepository;
+    private final OutboxEventRepository outboxEventRepository;
+
+    public AtomicLedger(AccountRepository accountRepository,
+                        JournalEntryRepository journalEntryRepository,
+                        OutboxEventRepository outboxEventRepository) {
+        this.accountRepository = accountRepository;
+        this.journalEntryRepository = journalEntryRepository;
+        this.outboxEventRepository = outboxEventRepository;
+    }
+
+    @Override
+    public boolean supports(WriteStrategy writeStrategy) {
+        return writeStrategy == WriteStrategy.ATOMIC;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long balanceOf(String iban) {
+        return currentBalance(iban);
+    }
+
+    @Override
+    @Transactional
+    public long deposit(String iban, long amount) {
+        credit(iban, amount);
+        return publish(iban, amount);
+    }
+
+    /**
+     * Credits the sum of the amounts with one UPDATE and derives each intermediate balance from the result.
+     */
+    @Override
+    @Transactional
+    public long[] depositAll(String iban, long[] amounts) {
+        var total = Ledger.total(amounts);
+        if (accountRepository.addToBalance(iban, Money.toDecimal(total)) == 0) {
+            throw new EntityNotFoundException("Account not found");
+        }
+        journalEntryRepository.saveAll(Arrays.stream(amounts)
+                .mapToObj(amount -> JournalEntry.applied(iban, amount))
+                .toList());
+
+        var balances = Ledger.balancesAfterEach(currentBalance(iban) - total, amounts);
+        outboxEventRepository.saveAll(IntStream.range(0, amounts.length)
+                .mapToObj(i -> OutboxEvent.movement(iban, amounts[i], balances[i]))
+                .toList());
+        return balances;
+    }
+
+    @Override
+    @Transactional
+    public long withdraw(String iban, long amount) {
+        debit(iban, amount);
+        return publish(iban, -amount);
+    }
+
+    @Override
+    @Transactional
+    public long transfer(String fromIban, String toIban, long amount) {
+        if (fromIban.compareTo(toIban) < 0) {
+            debit(fromIban, amount);
+            credit(toIban, amount);
+        } else {
+            credit(toIban, amount);
+            debit(fromIban, amount);
+        }
+        var balance = publish(fromIban, -amount);
+        publish(toIban, amount);
+        return balance;
+    }
+
+    @Override
+    @Transactional
+    public List<BatchResultDTO> applyBatch(List<BatchTransactionDTO> transactions) {
+        return Ledger.super.applyBatch(transactions);
+    }
+
+    private void credit(String iban, long amount) {
+        if (accountRepository.addToBalance(iban, Money.toDecimal(amount)) == 0) {
+            throw new EntityNotFoundException("Account not found");
+        }
+        journalEntryRepository.save(JournalEntry.applied(iban, amount));
+    }
+
+    private void debit(String iban, long amount) {
+        if (accountRepository.subtractFromBalance(iban, Money.toDecimal(amount)) == 0) {
+            // Nothing matched: either the account does not exist or the balance guard rejected the withdrawal.
+            currentBalance(iban);
+            throw new InsufficientBalanceException();
+        }
+        journalEntryRepository.save(JournalEntry.applied(iban, -amount));
+    }
+
+    /**
+     * Reads the balance a movement left behind and records it in the outbox.
+     */
+    private long publish(String iban, long amount) {
+        var balance = currentBalance(iban);
+        outboxEventRepository.save(OutboxEvent.movement(iban, amount, balance));
+        return balance;
+    }
+
+    private long currentBalance(String iban) {
+        return accountRepository.findBalanceByIban(iban)
+                .orElseThrow(() -> new EntityNotFoundException("Account not found"));
+    }
+}
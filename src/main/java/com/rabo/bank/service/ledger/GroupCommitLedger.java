@@ -0,0 +1,173 @@
+package com.rabo.bank.service.ledger;
+
+import com.rabo.bank.dto.BatchResultDTO;
+import com.rabo.bank.dto.BatchTransactionDTO;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces deposits to the same IBAN that arrive within a short window into one {@link Ledger#depositAll} call,
+ * so a hot account takes one balance update and one commit per window instead of one per deposit.
+ * <p>
+ * The first deposit of a window leads it: it waits for the window to pass, or for the group to fill up, then
+ * commits the whole group on its own thread and hands every waiting caller the balance after its own deposit.
+ * If the commit fails, every deposit of the group fails with the same exception. All other operations go straight
+ * to the delegate.
+ */
+public class GroupCommitLedger implements Ledger {
+
+    private final Ledger delegate;
+    private final long windowNanos;
+    private final int maxGroupSize;
+    private final Map<String, Group> open = new ConcurrentHashMap<>();
+    private final DistributionSummary groupSize;
+    private final Timer addedLatency;
+
+    public GroupCommitLedger(Ledger delegate, Duration window, int maxGroupSize, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.windowNanos = window.toNanos();
+        this.maxGroupSize = Math.max(1, maxGroupSize);
+        this.groupSize = DistributionSummary.builder("bank.account.group_commit.size")
+                .description("Deposits merged into one commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.addedLatency = Timer.builder("bank.account.group_commit.wait")
+                .description("Time a deposit waited for its group to be committed")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean supports(WriteStrategy writeStrategy) {
+        return delegate.supports(writeStrategy);
+    }
+
+    @Override
+    public long balanceOf(String iban) {
+        return delegate.balanceOf(iban);
+    }
+
+    @Override
+    public long deposit(String iban, long amount) {
+        var deposit = new PendingDeposit(amount, System.nanoTime());
+
+        while (true) {
+            var created = new Group(iban);
+            var group = open.putIfAbsent(iban, created);
+            if (group == null) {
+                created.add(deposit);
+                lead(iban, created);
+                break;
+            }
+            if (group.add(deposit)) {
+                break;
+            }
+            // The group closed between lookup and add; start or join the next one.
+        }
+
+        try {
+            return deposit.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public long withdraw(String iban, long amount) {
+        return delegate.withdraw(iban, amount);
+    }
+
+    @Override
+    public long transfer(String fromIban, String toIban, long amount) {
+        return delegate.transfer(fromIban, toIban, amount);
+    }
+
+    @Override
+    public long[] depositAll(String iban, long[] amounts) {
+        return delegate.depositAll(iban, amounts);
+    }
+
+    @Override
+    public List<BatchResultDTO> applyBatch(List<BatchTransactionDTO> transactions) {
+        return delegate.applyBatch(transactions);
+    }
+
+    private void lead(String iban, Group group) {
+        group.awaitFull(windowNanos);
+        open.remove(iban, group);
+        var deposits = group.close();
+
+        var committing = System.nanoTime();
+        deposits.forEach(deposit -> addedLatency.record(committing - deposit.arrived, TimeUnit.NANOSECONDS));
+        groupSize.record(deposits.size());
+
+        try {
+            var balances = delegate.depositAll(iban, deposits.stream().mapToLong(PendingDeposit::amount).toArray());
+            for (int i = 0; i < deposits.size(); i++) {
+                deposits.get(i).result.complete(balances[i]);
+            }
+        } catch (RuntimeException e) {
+            deposits.forEach(deposit -> deposit.result.completeExceptionally(e));
+        }
+    }
+
+    private record PendingDeposit(long amount, long arrived, CompletableFuture<Long> result) {
+
+        PendingDeposit(long amount, long arrived) {
+            this(amount, arrived, new CompletableFuture<>());
+        }
+    }
+
+    private final class Group {
+
+        private final String iban;
+        private final List<PendingDeposit> deposits = new ArrayList<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+        private boolean closed;
+
+        private Group(String iban) {
+            this.iban = iban;
+        }
+
+        synchronized boolean add(PendingDeposit deposit) {
+            if (closed) {
+                return false;
+            }
+            deposits.add(deposit);
+            if (deposits.size() >= maxGroupSize) {
+                // Let later deposits start the next group while the leader commits this one.
+                closed = true;
+                open.remove(iban, this);
+                full.countDown();
+            }
+            return true;
+        }
+
+        synchronized List<PendingDeposit> close() {
+            closed = true;
+            return deposits;
+        }
+
+        void awaitFull(long nanos) {
+            try {
+                full.await(nanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.rabo.bank.service.ledger;
+
+import com.rabo.bank.entities.Account;
+import com.rabo.bank.entities.JournalEntry;
+import com.rabo.bank.entities.OutboxEvent;
+import com.rabo.bank.exception.InsufficientBalanceException;
+import com.rabo.bank.money.Money;
+import com.rabo.bank.repository.AccountRepository;
+import com.rabo.bank.repository.JournalEntryRepository;
+import com.rabo.bank.repository.OutboxEventRepository;
+import com.rabo.bank.service.ShardRouter;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps balances in memory and serializes movements per IBAN through a fixed set of striped locks, so concurrent
+ * deposits to the same account queue up instead of failing optimistic locking. Changed balances are written back
+ * to the database in one JDBC batch every flush interval and on shutdown, together with their journal entries and
+ * outbox events.
+ * <p>
+ * The in-memory balance is authoritative, so this strategy assumes a single application node owns the accounts.
+ * Movements acknowledged since the last flush are lost if the JVM dies. With sharding, each shard's changes are
+ * written in a transaction on that shard.
+ */
+@Component
+@ConditionalOnProperty(name = "bank.account.write-strategy", havingValue = "IN_MEMORY")
+public class InMemoryLedger implements Ledger {
+
+    private static final String UPDATE_BALANCE = "UPDATE account SET balance = ?, version = version + 1 WHERE iban = ?";
+
+    private final AccountRepository accountRepository;
+    private final JournalEntryRepository journalEntryRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final ReentrantLock[] stripes;
+    private final Map<String, Long> balances = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final Queue<Movement> movements = new ConcurrentLinkedQueue<>();
+
+    public InMemoryLedger(AccountRepository accountRepository,
+                          JournalEntryRepository journalEntryRepository,
+                          OutboxEventRepository outboxEventRepository,
+                          JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          ShardRouter shardRouter,
+                          @Value("${bank.ledger.in-memory.stripes:64}") int stripes) {
+        this.accountRepository = accountRepository;
+        this.journalEntryRepository = journalEntryRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+        this.stripes = new ReentrantLock[Math.max(1, stripes)];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public boolean supports(WriteStrategy writeStrategy) {
+        return writeStrategy == WriteStrategy.IN_MEMORY;
+    }
+
+    @Override
+    public long balanceOf(String iban) {
+        var balance = balances.get(iban);
+        if (balance != null) {
+            return balance;
+        }
+
+        var lock = stripeFor(iban);
+        lock.lock();
+        try {
+            return load(iban);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long deposit(String iban, long amount) {
+        var lock = stripeFor(iban);
+        lock.lock();
+        try {
+            var newBalance = Money.add(load(iban), amount);
+            update(iban, newBalance, amount);
+            return newBalance;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long withdraw(String iban, long amount) {
+        var lock = stripeFor(iban);
+        lock.lock();
+        try {
+            var newBalance = load(iban) - amount;
+
+            if (isNegativeBalance(newBalance)) {
+                throw new InsufficientBalanceException();
+            }
+
+            update(iban, newBalance, -amount);
+            return newBalance;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long transfer(String fromIban, String toIban, long amount) {
+        var first = stripeIndex(fromIban);
+        var second = stripeIndex(toIban);
+        var lower = stripes[Math.min(first, second)];
+        var upper = stripes[Math.max(first, second)];
+
+        lower.lock();
+        upper.lock();
+        try {
+            var fromBalance = load(fromIban) - amount;
+            var toBalance = Money.add(load(toIban), amount);
+
+            if (isNegativeBalance(fromBalance)) {
+                throw new InsufficientBalanceException();
+            }
+
+            update(fromIban, fromBalance, -amount);
+            update(toIban, toBalance, amount);
+            return fromBalance;
+        } finally {
+            upper.unlock();
+            lower.unlock();
+        }
+    }
+
+    /**
+     * Snapshots the changed balances while holding every stripe, so a flush never persists half of a transfer,
+     * then writes the snapshot in one JDBC batch outside the locks.
+     */
+    @Scheduled(fixedDelayString = "${bank.ledger.in-memory.flush-interval-ms:100}")
+    public synchronized void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        List<Movement> pending = new ArrayList<>();
+        lockAll();
+        try {
+            for (var iban : dirty) {
+                rows.add(new Object[]{Money.toDecimal(balances.get(iban)), iban});
+            }
+            dirty.clear();
+
+            Movement movement;
+            while ((movement = movements.poll()) != null) {
+                pending.add(movement);
+            }
+        } finally {
+            unlockAll();
+        }
+
+        var rowsByShard = rows.stream()
+                .collect(Collectors.groupingBy(row -> shardRouter.shardOf((String) row[1])));
+        var movementsByShard = pending.stream()
+                .collect(Collectors.groupingBy(movement -> shardRouter.shardOf(movement.iban())));
+
+        RuntimeException failure = null;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            var shardRows = rowsByShard.getOrDefault(shard, List.of());
+            var shardMovements = movementsByShard.getOrDefault(shard, List.of());
+            if (shardRows.isEmpty() && shardMovements.isEmpty()) {
+                continue;
+            }
+
+            try {
+                shardRouter.runOnShard(shard, () -> transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(UPDATE_BALANCE, shardRows);
+                    journalEntryRepository.saveAll(shardMovements.stream().map(Movement::toJournalEntry).toList());
+                    outboxEventRepository.saveAll(shardMovements.stream().map(Movement::toOutboxEvent).toList());
+                }));
+            } catch (RuntimeException e) {
+                shardRows.forEach(row -> dirty.add((String) row[1]));
+                movements.addAll(shardMovements);
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private long load(String iban) {
+        var balance = balances.get(iban);
+        if (balance == null) {
+            balance = accountRepository.findByIban(iban)
+                    .map(Account::getBalance)
+                    .orElseThrow(() -> new EntityNotFoundException("Account not found"));
+            balances.put(iban, balance);
+        }
+        return balance;
+    }
+
+    private void update(String iban, long newBalance, long movement) {
+        balances.put(iban, newBalance);
+        dirty.add(iban);
+        movements.add(new Movement(iban, movement, newBalance, Instant.now()));
+    }
+
+    private ReentrantLock stripeFor(String iban) {
+        return stripes[stripeIndex(iban)];
+    }
+
+    private int stripeIndex(String iban) {
+        int hash = iban.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), stripes.length);
+    }
+
+    private void lockAll() {
+        for (var stripe : stripes) {
+            stripe.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
+    }
+
+    private boolean isNegativeBalance(long newBalance) {
+        return newBalance < 0;
+    }
+
+    private record Movement(String iban, long amount, long balance, Instant createdAt) {
+
+        JournalEntry toJournalEntry() {
+            return new JournalEntry(iban, Money.toDecimal(amount), true, createdAt);
+        }
+
+        OutboxEvent toOutboxEvent() {
+            return OutboxEvent.movement(iban, amount, balance, createdAt);
+        }
+    }
+}
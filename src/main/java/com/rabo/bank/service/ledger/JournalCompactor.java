@@ -0,0 +1,44 @@
+package com.rabo.bank.service.ledger;
+
+import com.rabo.bank.repository.JournalEntryRepository;
+import com.rabo.bank.service.ShardRouter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically folds unfolded journal entries into the account balances, keeping the number of entries a balance
+ * read has to sum small. With sharding, every shard is compacted in turn.
+ */
+@Component
+@ConditionalOnProperty(name = "bank.account.write-strategy", havingValue = "JOURNAL")
+public class JournalCompactor {
+
+    private final JournalEntryRepository journalEntryRepository;
+    private final JournalLedger journalLedger;
+    private final ShardRouter shardRouter;
+    private final int batchSize;
+
+    public JournalCompactor(JournalEntryRepository journalEntryRepository,
+                            JournalLedger journalLedger,
+                            ShardRouter shardRouter,
+                            @Value("${bank.journal.compaction-batch-size:1000}") int batchSize) {
+        this.journalEntryRepository = journalEntryRepository;
+        this.journalLedger = journalLedger;
+        this.shardRouter = shardRouter;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${bank.journal.compaction-interval-ms:1000}")
+    public void compact() {
+        shardRouter.shards().forEach(shard -> shardRouter.runOnShard(shard, this::compactShard));
+    }
+
+    private void compactShard() {
+        for (var iban : journalEntryRepository.findIbansWithUnfoldedEntries(PageRequest.of(0, batchSize))) {
+            journalLedger.compact(iban, batchSize);
+        }
+    }
+}
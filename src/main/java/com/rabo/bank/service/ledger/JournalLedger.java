@@ -0,0 +1,163 @@
+package com.rabo.bank.service.ledger;
+
+import com.rabo.bank.dto.BatchResultDTO;
+import com.rabo.bank.dto.BatchTransactionDTO;
+import com.rabo.bank.entities.JournalEntry;
+import com.rabo.bank.entities.OutboxEvent;
+import com.rabo.bank.exception.InsufficientBalanceException;
+import com.rabo.bank.money.Money;
+import com.rabo.bank.repository.AccountRepository;
+import com.rabo.bank.repository.JournalEntryRepository;
+import com.rabo.bank.repository.OutboxEventRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Records movements as inserts into the transaction journal. Deposits never touch the account row, so they do not
+ * contend with each other; withdrawals and transfers lock the account row to check the balance. The balance is the
+ * folded snapshot in {@code account.balance} plus the unfolded journal entries, read in a single statement.
+ */
+@Component
+public class JournalLedger implements Ledger {
+
+    private final AccountRepository accountRepository;
+    private final JournalEntryRepository journalEntryRepository;
+    private final OutboxEventRepository outboxEventRepository;
+
+    public JournalLedger(AccountRepository accountRepository,
+                         JournalEntryRepository journalEntryRepository,
+                         OutboxEventRepository outboxEventRepository) {
+        this.accountRepository = accountRepository;
+        this.journalEntryRepository = journalEntryRepository;
+        this.outboxEventRepository = outboxEventRepository;
+    }
+
+    @Override
+    public boolean supports(WriteStrategy writeStrategy) {
+        return writeStrategy == WriteStrategy.JOURNAL;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long balanceOf(String iban) {
+        return currentBalance(iban);
+    }
+
+    @Override
+    @Transactional
+    public long deposit(String iban, long amount) {
+        if (!accountRepository.existsByIban(iban)) {
+            throw new EntityNotFoundException("Account not found");
+        }
+
+        journalEntryRepository.save(JournalEntry.pending(iban, amount));
+        var balance = currentBalance(iban);
+        outboxEventRepository.save(OutboxEvent.movement(iban, amount, balance));
+        return balance;
+    }
+
+    @Override
+    @Transactional
+    public long[] depositAll(String iban, long[] amounts) {
+        if (!accountRepository.existsByIban(iban)) {
+            throw new EntityNotFoundException("Account not found");
+        }
+
+        journalEntryRepository.saveAll(Arrays.stream(amounts)
+                .mapToObj(amount -> JournalEntry.pending(iban, amount))
+                .toList());
+
+        var balances = Ledger.balancesAfterEach(currentBalance(iban) - Ledger.total(amounts), amounts);
+        outboxEventRepository.saveAll(IntStream.range(0, amounts.length)
+                .mapToObj(i -> OutboxEvent.movement(iban, amounts[i], balances[i]))
+                .toList());
+        return balances;
+    }
+
+    @Override
+    @Transactional
+    public long withdraw(String iban, long amount) {
+        accountRepository.lockByIban(iban)
+                .orElseThrow(() -> new EntityNotFoundException("Account not found"));
+
+        var newBalance = currentBalance(iban) - amount;
+
+        if (isNegativeBalance(newBalance)) {
+            throw new InsufficientBalanceException();
+        }
+
+        journalEntryRepository.save(JournalEntry.pending(iban, -amount));
+        outboxEventRepository.save(OutboxEvent.movement(iban, -amount, newBalance));
+        return newBalance;
+    }
+
+    @Override
+    @Transactional
+    public long transfer(String fromIban, String toIban, long amount) {
+        if (accountRepository.lockAllByIbanIn(List.of(fromIban, toIban)).size() < 2) {
+            throw new EntityNotFoundException("Account not found");
+        }
+
+        var newBalance = currentBalance(fromIban) - amount;
+
+        if (isNegativeBalance(newBalance)) {
+            throw new InsufficientBalanceException();
+        }
+
+        journalEntryRepository.saveAll(List.of(
+                JournalEntry.pending(fromIban, -amount),
+                JournalEntry.pending(toIban, amount)));
+        outboxEventRepository.saveAll(List.of(
+                OutboxEvent.movement(fromIban, -amount, newBalance),
+                OutboxEvent.movement(toIban, amount, currentBalance(toIban))));
+        return newBalance;
+    }
+
+    @Override
+    @Transactional
+    public List<BatchResultDTO> applyBatch(List<BatchTransactionDTO> transactions) {
+        return Ledger.super.applyBatch(transactions);
+    }
+
+    /**
+     * Folds up to {@code maxEntries} unfolded entries of one account into its balance. The account row is locked so
+     * the fold cannot interleave with a withdrawal's balance check; the entries are marked by id, so a deposit that
+     * commits while the fold runs is left for the next round rather than lost.
+     */
+    @Transactional
+    public void compact(String iban, int maxEntries) {
+        var account = accountRepository.lockByIban(iban);
+        if (account.isEmpty()) {
+            return;
+        }
+
+        var entries = journalEntryRepository.findUnfolded(iban, PageRequest.of(0, maxEntries));
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        var folded = entries.stream()
+                .map(JournalEntry::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        account.get().setBalance(Money.add(account.get().getBalance(), Money.toCents(folded)));
+        journalEntryRepository.markFolded(entries.stream().map(JournalEntry::getId).toList());
+    }
+
+    private long currentBalance(String iban) {
+        return accountRepository.findJournalBalanceByIban(iban)
+                .map(Money::toCents)
+                .orElseThrow(() -> new EntityNotFoundException("Account not found"));
+    }
+
+    private boolean isNegativeBalance(long newBalance) {
+        return newBalance < 0;
+    }
+}
@@ -0,0 +1,236 @@
+package com.rabo.bank.service.ledger;
+
+import com.rabo.bank.dto.BatchResultDTO;
+import com.rabo.bank.dto.BatchTransactionDTO;
+import com.rabo.bank.dto.TransactionType;
+import com.rabo.bank.entities.Account;
+import com.rabo.bank.entities.JournalEntry;
+import com.rabo.bank.entities.OutboxEvent;
+import com.rabo.bank.exception.ConcurrentUpdateException;
+import com.rabo.bank.exception.InsufficientBalanceException;
+import com.rabo.bank.money.Money;
+import com.rabo.bank.repository.AccountRepository;
+import com.rabo.bank.repository.JournalEntryRepository;
+import com.rabo.bank.repository.OutboxEventRepository;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@Component
+public class JpaLedger implements Ledger {
+
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    private final AccountRepository accountRepository;
+    private final JournalEntryRepository journalEntryRepository;
+    private final OutboxEventRepository outboxEventRepository;
+
+    public JpaLedger(AccountRepository accountRepository,
+                     JournalEntryRepository journalEntryRepository,
+                     OutboxEventRepository outboxEventRepository) {
+        this.accountRepository = accountRepository;
+        this.journalEntryRepository = journalEntryRepository;
+        this.outboxEventRepository = outboxEventRepository;
+    }
+
+    @Override
+    public boolean supports(WriteStrategy writeStrategy) {
+        return writeStrategy == WriteStrategy.OPTIMISTIC;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long balanceOf(String iban) {
+        return getAccount(iban).getBalance();
+    }
+
+    @Override
+    @Transactional
+    public long deposit(String iban, long amount) {
+        var account = loadForUpdate(iban);
+
+        var newBalance = Money.add(account.getBalance(), amount);
+        account.setBalance(newBalance);
+
+        save(account);
+        journalEntryRepository.save(JournalEntry.applied(iban, amount));
+        outboxEventRepository.save(OutboxEvent.movement(iban, amount, newBalance));
+        return newBalance;
+    }
+
+    @Override
+    @Transactional
+    public long[] depositAll(String iban, long[] amounts) {
+        var account = loadForUpdate(iban);
+
+        var balances = Ledger.balancesAfterEach(account.getBalance(), amounts);
+        account.setBalance(balances[balances.length - 1]);
+
+        save(account);
+        journalEntryRepository.saveAll(Arrays.stream(amounts)
+                .mapToObj(amount -> JournalEntry.applied(iban, amount))
+                .toList());
+        outboxEventRepository.saveAll(IntStream.range(0, amounts.length)
+                .mapToObj(i -> OutboxEvent.movement(iban, amounts[i], balances[i]))
+                .toList());
+        return balances;
+    }
+
+    @Override
+    @Transactional
+    public long withdraw(String iban, long amount) {
+        var account = loadForUpdate(iban);
+
+        var newBalance = account.getBalance() - amount;
+
+        if (isNegativeBalance(newBalance)) {
+            throw new InsufficientBalanceException();
+        }
+
+        account.setBalance(newBalance);
+
+        save(account);
+        journalEntryRepository.save(JournalEntry.applied(iban, -amount));
+        outboxEventRepository.save(OutboxEvent.movement(iban, -amount, newBalance));
+        return newBalance;
+    }
+
+    @Override
+    @Transactional
+    public long transfer(String fromIban, String toIban, long amount) {
+        var accounts = accountRepository.lockAllByIbanIn(List.of(fromIban, toIban)).stream()
+                .collect(Collectors.toMap(Account::getIban, Function.identity()));
+
+        var from = accounts.get(fromIban);
+        var to = accounts.get(toIban);
+
+        if (from == null || to == null) {
+            throw new EntityNotFoundException("Account not found");
+        }
+
+        var newBalance = from.getBalance() - amount;
+
+        if (isNegativeBalance(newBalance)) {
+            throw new InsufficientBalanceException();
+        }
+
+        from.setBalance(newBalance);
+        to.setBalance(Money.add(to.getBalance(), amount));
+        journalEntryRepository.saveAll(List.of(
+                JournalEntry.applied(fromIban, -amount),
+                JournalEntry.applied(toIban, amount)));
+        outboxEventRepository.saveAll(List.of(
+                OutboxEvent.movement(fromIban, -amount, newBalance),
+                OutboxEvent.movement(toIban, amount, to.getBalance())));
+
+        return newBalance;
+    }
+
+    /**
+     * Loads every affected account up front, applies the movements to the managed entities and flushes once,
+     * so Hibernate sends the updates as JDBC batches instead of one load and one update per movement.
+     */
+    @Override
+    @Transactional
+    public List<BatchResultDTO> applyBatch(List<BatchTransactionDTO> transactions) {
+        var accounts = loadAccounts(transactions);
+
+        List<BatchResultDTO> results = new ArrayList<>(transactions.size());
+        List<JournalEntry> entries = new ArrayList<>(transactions.size());
+        List<OutboxEvent> events = new ArrayList<>(transactions.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            var transaction = transactions.get(i);
+            var account = accounts.get(transaction.iban());
+
+            if (account == null) {
+                results.add(BatchResultDTO.failed(i, transaction.iban(), "Account not found"));
+                continue;
+            }
+
+            var amount = Money.toCents(transaction.amount());
+            var movement = transaction.type() == TransactionType.DEPOSIT ? amount : -amount;
+            var newBalance = Money.add(account.getBalance(), movement);
+
+            if (isNegativeBalance(newBalance)) {
+                results.add(BatchResultDTO.failed(i, transaction.iban(), "Insufficient balance"));
+                continue;
+            }
+
+            account.setBalance(newBalance);
+            entries.add(JournalEntry.applied(transaction.iban(), movement));
+            events.add(OutboxEvent.movement(transaction.iban(), movement, newBalance));
+            results.add(BatchResultDTO.succeeded(i, transaction.iban()));
+        }
+
+        journalEntryRepository.saveAll(entries);
+        outboxEventRepository.saveAll(events);
+
+        try {
+            accountRepository.flush();
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConcurrentUpdateException("Failed to update account balances due to concurrent modifications.");
+        }
+
+        return results;
+    }
+
+    /**
+     * Loads the account a single movement is applied to. Conflicting writers are detected by {@code @Version}
+     * when the transaction flushes.
+     */
+    protected Account loadForUpdate(String iban) {
+        return getAccount(iban);
+    }
+
+    /**
+     * Loads every account touched by a batch, keyed by IBAN; missing accounts are absent from the map.
+     */
+    protected Map<String, Account> loadAccounts(List<BatchTransactionDTO> transactions) {
+        var ibans = transactions.stream()
+                .map(BatchTransactionDTO::iban)
+                .distinct()
+                .toList();
+
+        Map<String, Account> accounts = new HashMap<>(ibans.size());
+        for (int from = 0; from < ibans.size(); from += LOOKUP_CHUNK_SIZE) {
+            var chunk = ibans.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, ibans.size()));
+            accountRepository.findAllByIbanIn(chunk).forEach(account -> accounts.put(account.getIban(), account));
+        }
+        return accounts;
+    }
+
+    private void save(Account account) {
+        try {
+            accountRepository.save(account);
+        } catch (OptimisticLockException e) {
+            throw new ConcurrentUpdateException("Failed to update account balance due to concurrent modifications.");
+        }
+    }
+
+    @NotNull
+    private Account getAccount(String iban) {
+        var account = accountRepository.findByIban(iban);
+
+        if (account.isEmpty()) {
+            throw new EntityNotFoundException("Account not found");
+        }
+
+        return account.get();
+    }
+
+    private boolean isNegativeBalance(long newBalance) {
+        return newBalance < 0;
+    }
+}
@@ -0,0 +1,99 @@
+package com.rabo.bank.service.ledger;
+
+import com.rabo.bank.dto.BatchResultDTO;
+import com.rabo.bank.dto.BatchTransactionDTO;
+import com.rabo.bank.dto.TransactionType;
+import com.rabo.bank.exception.TransactionNotAllowedException;
+import com.rabo.bank.money.Money;
+import jakarta.persistence.EntityNotFoundException;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Applies balance movements to accounts. {@code AccountService} delegates to the implementation that
+ * supports the configured {@link WriteStrategy}. Amounts and balances are in cents.
+ */
+public interface Ledger {
+
+    boolean supports(WriteStrategy writeStrategy);
+
+    long balanceOf(String iban);
+
+    long deposit(String iban, long amount);
+
+    long withdraw(String iban, long amount);
+
+    /**
+     * Deposits several amounts into one account and returns the balance after each of them, in order. The
+     * default applies them one by one; implementations backed by the database override it to apply them with a
+     * single balance update and commit.
+     */
+    default long[] depositAll(String iban, long[] amounts) {
+        var balances = new long[amounts.length];
+        for (int i = 0; i < amounts.length; i++) {
+            balances[i] = deposit(iban, amounts[i]);
+        }
+        return balances;
+    }
+
+    /**
+     * Moves the amount between two distinct accounts atomically and returns the new balance of the source account.
+     * Implementations lock the accounts in IBAN order so opposite transfers cannot deadlock.
+     */
+    long transfer(String fromIban, String toIban, long amount);
+
+    /**
+     * Applies the transactions and reports each outcome at its original index. A rejected entry is skipped; it does
+     * not stop the rest. Accounts are visited in IBAN order, with each account's own entries kept in submission
+     * order, so concurrent batches touch rows in the same sequence.
+     */
+    default List<BatchResultDTO> applyBatch(List<BatchTransactionDTO> transactions) {
+        var results = new BatchResultDTO[transactions.size()];
+        var order = IntStream.range(0, transactions.size()).boxed()
+                .sorted(Comparator.comparing(i -> transactions.get(i).iban()))
+                .toList();
+
+        for (int i : order) {
+            var transaction = transactions.get(i);
+            try {
+                var amount = Money.toCents(transaction.amount());
+                if (transaction.type() == TransactionType.DEPOSIT) {
+                    deposit(transaction.iban(), amount);
+                } else {
+                    withdraw(transaction.iban(), amount);
+                }
+                results[i] = BatchResultDTO.succeeded(i, transaction.iban());
+            } catch (TransactionNotAllowedException | EntityNotFoundException e) {
+                results[i] = BatchResultDTO.failed(i, transaction.iban(), e.getMessage());
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Returns the running balance after each amount, starting from {@code opening}.
+     */
+    static long[] balancesAfterEach(long opening, long[] amounts) {
+        var balances = new long[amounts.length];
+        var balance = opening;
+        for (int i = 0; i < amounts.length; i++) {
+            balance = Money.add(balance, amounts[i]);
+            balances[i] = balance;
+        }
+        return balances;
+    }
+
+    /**
+     * Returns the sum of the amounts.
+     */
+    static long total(long[] amounts) {
+        long total = 0;
+        for (var amount : amounts) {
+            total = Money.add(total, amount);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,121 @@
+package com.rabo.bank.service.ledger;
+
+import com.rabo.bank.money.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Bookkeeping of transfers between accounts on different shards, see {@link ShardedLedger}. Every method works on
+ * the shard, and inside the transaction, of its caller.
+ * <p>
+ * A transfer is recorded in {@code pending_transfer} on the source shard, in the transaction of its withdrawal. Its
+ * outcome is recorded in {@code transfer_outcome} on the target shard: {@code DEPOSITED} in the transaction of the
+ * deposit, or {@code CANCELLED} before the withdrawal may be paid back. Only one of them can be inserted, so a
+ * transfer is never both deposited and paid back.
+ */
+@Component
+public class PendingTransfers {
+
+    static final String DEPOSITED = "DEPOSITED";
+    static final String CANCELLED = "CANCELLED";
+
+    private static final String RECORD = "INSERT INTO pending_transfer (id, from_iban, to_iban, amount, created_at) "
+            + "VALUES (?, ?, ?, ?, ?)";
+    private static final String RESOLVE = "DELETE FROM pending_transfer WHERE id = ?";
+    private static final String FIND_STALE = "SELECT id, from_iban, to_iban, amount FROM pending_transfer "
+            + "WHERE created_at < ? ORDER BY created_at LIMIT ?";
+    private static final String RECORD_OUTCOME = "INSERT INTO transfer_outcome (id, outcome, created_at) "
+            + "VALUES (?, ?, ?)";
+    private static final String FIND_OUTCOME = "SELECT outcome FROM transfer_outcome WHERE id = ?";
+    private static final String PURGE_OUTCOMES = "DELETE FROM transfer_outcome WHERE created_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration settleAfter;
+    private final Duration outcomeTtl;
+    private final int batchSize;
+
+    public PendingTransfers(JdbcTemplate jdbcTemplate,
+                            @Value("${bank.sharding.transfer-recovery.settle-after:1m}") Duration settleAfter,
+                            @Value("${bank.sharding.transfer-recovery.outcome-ttl:7d}") Duration outcomeTtl,
+                            @Value("${bank.sharding.transfer-recovery.batch-size:100}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.settleAfter = settleAfter;
+        this.outcomeTtl = outcomeTtl;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Records a transfer on its source shard and returns its id.
+     */
+    public String record(String fromIban, String toIban, long amount) {
+        var id = UUID.randomUUID().toString();
+        jdbcTemplate.update(RECORD, id, fromIban, toIban, Money.toDecimal(amount), now());
+        return id;
+    }
+
+    /**
+     * Records on the target shard that the transfer was deposited. Fails with a {@link DuplicateKeyException} if it
+     * was cancelled already.
+     */
+    public void markDeposited(String id) {
+        jdbcTemplate.update(RECORD_OUTCOME, id, DEPOSITED, now());
+    }
+
+    /**
+     * Cancels the transfer on the target shard unless it was deposited. Returns {@code true} if the transfer is
+     * cancelled, so its withdrawal may be paid back, and {@code false} if it was deposited.
+     */
+    public boolean cancel(String id) {
+        try {
+            jdbcTemplate.update(RECORD_OUTCOME, id, CANCELLED, now());
+            return true;
+        } catch (DuplicateKeyException e) {
+            return CANCELLED.equals(jdbcTemplate.queryForObject(FIND_OUTCOME, String.class, id));
+        }
+    }
+
+    /**
+     * Removes the transfer from its source shard. Returns {@code false} if another caller settled it first.
+     */
+    public boolean resolve(String id) {
+        return jdbcTemplate.update(RESOLVE, id) == 1;
+    }
+
+    /**
+     * Transfers on this shard that have been pending for longer than
+     * {@code bank.sharding.transfer-recovery.settle-after}, oldest first. Younger ones are most likely still being
+     * completed by the request that started them.
+     */
+    public List<PendingTransfer> stale() {
+        return jdbcTemplate.query(FIND_STALE, (row, number) -> new PendingTransfer(
+                        row.getString("id"),
+                        row.getString("from_iban"),
+                        row.getString("to_iban"),
+                        Money.toCents(row.getObject("amount", BigDecimal.class))),
+                now().minus(settleAfter), batchSize);
+    }
+
+    /**
+     * Forgets outcomes older than {@code bank.sharding.transfer-recovery.outcome-ttl}. The TTL has to outlast any
+     * shard outage: a pending transfer whose outcome is gone would be paid back even if it was deposited.
+     */
+    public void purgeOutcomes() {
+        jdbcTemplate.update(PURGE_OUTCOMES, now().minus(outcomeTtl));
+    }
+
+    private static OffsetDateTime now() {
+        return OffsetDateTime.now(ZoneOffset.UTC);
+    }
+
+    public record PendingTransfer(String id, String fromIban, String toIban, long amount) {
+    }
+}
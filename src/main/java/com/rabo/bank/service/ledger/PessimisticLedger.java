@@ -0,0 +1,60 @@
+package com.rabo.bank.service.ledger;
+
+import com.rabo.bank.dto.BatchTransactionDTO;
+import com.rabo.bank.entities.Account;
+import com.rabo.bank.repository.AccountRepository;
+import com.rabo.bank.repository.JournalEntryRepository;
+import com.rabo.bank.repository.OutboxEventRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Same read-modify-write as {@link JpaLedger}, but the account row is read with {@code SELECT ... FOR UPDATE}, so
+ * concurrent writers to the same IBAN wait on the row lock instead of failing the {@code @Version} check.
+ * Batches lock their accounts in IBAN order to keep the lock order consistent with transfers.
+ */
+@Component
+public class PessimisticLedger extends JpaLedger {
+
+    private static final int LOCK_CHUNK_SIZE = 1000;
+
+    private final AccountRepository accountRepository;
+
+    public PessimisticLedger(AccountRepository accountRepository,
+                             JournalEntryRepository journalEntryRepository,
+                             OutboxEventRepository outboxEventRepository) {
+        super(accountRepository, journalEntryRepository, outboxEventRepository);
+        this.accountRepository = accountRepository;
+    }
+
+    @Override
+    public boolean supports(WriteStrategy writeStrategy) {
+        return writeStrategy == WriteStrategy.PESSIMISTIC;
+    }
+
+    @Override
+    protected Account loadForUpdate(String iban) {
+        return accountRepository.lockByIban(iban)
+                .orElseThrow(() -> new EntityNotFoundException("Account not found"));
+    }
+
+    @Override
+    protected Map<String, Account> loadAccounts(List<BatchTransactionDTO> transactions) {
+        var ibans = transactions.stream()
+                .map(BatchTransactionDTO::iban)
+                .distinct()
+                .sorted()
+                .toList();
+
+        Map<String, Account> accounts = new HashMap<>(ibans.size());
+        for (int from = 0; from < ibans.size(); from += LOCK_CHUNK_SIZE) {
+            var chunk = ibans.subList(from, Math.min(from + LOCK_CHUNK_SIZE, ibans.size()));
+            accountRepository.lockAllByIbanIn(chunk).forEach(account -> accounts.put(account.getIban(), account));
+        }
+        return accounts;
+    }
+}
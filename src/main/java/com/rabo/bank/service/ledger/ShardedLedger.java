@@ -0,0 +1,217 @@
+package com.rabo.bank.service.ledger;
+
+import com.rabo.bank.dto.BatchResultDTO;
+import com.rabo.bank.dto.BatchTransactionDTO;
+import com.rabo.bank.exception.ConcurrentUpdateException;
+import com.rabo.bank.service.RetryPolicy;
+import com.rabo.bank.service.ShardRouter;
+import com.rabo.bank.service.ledger.PendingTransfers.PendingTransfer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs every movement on the shard that holds its account, see {@link ShardRouter}. A transfer between two accounts
+ * on the same shard, and the part of a batch that falls on one shard, keep the single transaction of the delegate.
+ * <p>
+ * A transfer between shards cannot commit on both at once. It checks that the target exists, withdraws on the
+ * source shard and records the transfer as pending in the same transaction, then deposits on the target shard and
+ * records the deposit there, see {@link PendingTransfers}. If the deposit fails, the transfer is settled: it is
+ * completed if its deposit turns out to be recorded after all, and paid back into the source account otherwise.
+ * A transfer that cannot be settled right away, e.g. because a shard is down or the process died between the two
+ * legs, stays pending and is settled the same way by {@link #settlePendingTransfers()}.
+ * <p>
+ * Each shard's part of a batch is retried on its own, and a part that still loses the optimistic locking race is
+ * reported as failed, because the other parts may have committed already.
+ */
+public class ShardedLedger implements Ledger {
+
+    private static final String SETTLED_COUNTER = "bank.account.transfers.settled";
+
+    private final Ledger delegate;
+    private final ShardRouter shardRouter;
+    private final RetryPolicy retryPolicy;
+    private final PendingTransfers pendingTransfers;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter completed;
+    private final Counter paidBack;
+
+    public ShardedLedger(Ledger delegate,
+                         ShardRouter shardRouter,
+                         RetryPolicy retryPolicy,
+                         PendingTransfers pendingTransfers,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.shardRouter = shardRouter;
+        this.retryPolicy = retryPolicy;
+        this.pendingTransfers = pendingTransfers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.completed = meterRegistry.counter(SETTLED_COUNTER, "outcome", "completed");
+        this.paidBack = meterRegistry.counter(SETTLED_COUNTER, "outcome", "paid_back");
+    }
+
+    @Override
+    public boolean supports(WriteStrategy writeStrategy) {
+        return delegate.supports(writeStrategy);
+    }
+
+    @Override
+    public long balanceOf(String iban) {
+        return shardRouter.onShardOf(iban, () -> delegate.balanceOf(iban));
+    }
+
+    @Override
+    public long deposit(String iban, long amount) {
+        return shardRouter.onShardOf(iban, () -> delegate.deposit(iban, amount));
+    }
+
+    @Override
+    public long[] depositAll(String iban, long[] amounts) {
+        return shardRouter.onShardOf(iban, () -> delegate.depositAll(iban, amounts));
+    }
+
+    @Override
+    public long withdraw(String iban, long amount) {
+        return shardRouter.onShardOf(iban, () -> delegate.withdraw(iban, amount));
+    }
+
+    @Override
+    public long transfer(String fromIban, String toIban, long amount) {
+        var fromShard = shardRouter.shardOf(fromIban);
+        var toShard = shardRouter.shardOf(toIban);
+        if (fromShard == toShard) {
+            return shardRouter.onShard(fromShard, () -> delegate.transfer(fromIban, toIban, amount));
+        }
+
+        shardRouter.onShard(toShard, () -> delegate.balanceOf(toIban));
+        var balance = new long[1];
+        var id = shardRouter.onShard(fromShard, () -> inTransaction(() -> {
+            balance[0] = delegate.withdraw(fromIban, amount);
+            return pendingTransfers.record(fromIban, toIban, amount);
+        }));
+        var transfer = new PendingTransfer(id, fromIban, toIban, amount);
+
+        try {
+            shardRouter.onShard(toShard, () -> retryPolicy.execute(() -> inTransaction(() -> {
+                delegate.deposit(toIban, amount);
+                pendingTransfers.markDeposited(id);
+                return null;
+            })));
+        } catch (RuntimeException e) {
+            try {
+                if (settle(transfer)) {
+                    return balance[0];
+                }
+            } catch (RuntimeException settleFailure) {
+                // The transfer stays pending and is settled later
+                e.addSuppressed(settleFailure);
+            }
+            throw e;
+        }
+
+        try {
+            shardRouter.onShard(fromShard, () -> pendingTransfers.resolve(id));
+        } catch (RuntimeException e) {
+            // The deposit is recorded, so settling the pending transfer later completes it
+        }
+        return balance[0];
+    }
+
+    /**
+     * Settles the transfers that have been pending on any shard for longer than
+     * {@code bank.sharding.transfer-recovery.settle-after}. Returns the IBANs whose balance changed. A transfer that
+     * cannot be settled stays pending for the next run; the first failure is rethrown once every shard was visited.
+     */
+    public List<String> settlePendingTransfers() {
+        var changed = new LinkedHashSet<String>();
+        RuntimeException failure = null;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            var stale = shardRouter.onShard(shard, pendingTransfers::stale);
+            for (var transfer : stale) {
+                try {
+                    var deposited = settle(transfer);
+                    changed.add(deposited ? transfer.toIban() : transfer.fromIban());
+                } catch (RuntimeException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            shardRouter.runOnShard(shard, pendingTransfers::purgeOutcomes);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return List.copyOf(changed);
+    }
+
+    /**
+     * Completes the transfer if its deposit was recorded on the target shard, and otherwise cancels it there and pays
+     * the amount back into the source account. Removing the pending transfer and paying it back share a transaction,
+     * so a transfer settled by two callers at once is paid back only once. Returns {@code true} if it was deposited.
+     */
+    private boolean settle(PendingTransfer transfer) {
+        var cancelled = shardRouter.onShardOf(transfer.toIban(), () -> pendingTransfers.cancel(transfer.id()));
+        var settled = shardRouter.onShardOf(transfer.fromIban(), () -> retryPolicy.execute(() -> inTransaction(() -> {
+            var resolved = pendingTransfers.resolve(transfer.id());
+            if (resolved && cancelled) {
+                delegate.deposit(transfer.fromIban(), transfer.amount());
+            }
+            return resolved;
+        })));
+
+        if (settled) {
+            (cancelled ? paidBack : completed).increment();
+        }
+        return !cancelled;
+    }
+
+    private <T> T inTransaction(Supplier<T> operation) {
+        return transactionTemplate.execute(status -> operation.get());
+    }
+
+    @Override
+    public List<BatchResultDTO> applyBatch(List<BatchTransactionDTO> transactions) {
+        Map<Integer, List<Integer>> indexesByShard = new TreeMap<>();
+        for (int i = 0; i < transactions.size(); i++) {
+            indexesByShard.computeIfAbsent(shardRouter.shardOf(transactions.get(i).iban()), shard -> new ArrayList<>())
+                    .add(i);
+        }
+
+        var results = new BatchResultDTO[transactions.size()];
+        for (var entry : indexesByShard.entrySet()) {
+            var indexes = entry.getValue();
+            var part = indexes.stream().map(transactions::get).toList();
+
+            List<BatchResultDTO> partResults;
+            try {
+                partResults = shardRouter.onShard(entry.getKey(),
+                        () -> retryPolicy.execute(() -> delegate.applyBatch(part)));
+            } catch (ConcurrentUpdateException | OptimisticLockingFailureException e) {
+                partResults = new ArrayList<>(part.size());
+                for (int i = 0; i < part.size(); i++) {
+                    partResults.add(BatchResultDTO.failed(i, part.get(i).iban(), e.getMessage()));
+                }
+            }
+
+            for (var result : partResults) {
+                var index = indexes.get(result.index());
+                results[index] = new BatchResultDTO(index, result.iban(), result.success(), result.message());
+            }
+        }
+        return Arrays.asList(results);
+    }
+}
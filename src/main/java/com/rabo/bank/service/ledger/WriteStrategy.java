@@ -0,0 +1,27 @@
+package com.rabo.bank.service.ledger;
+
+public enum WriteStrategy {
+    /**
+     * Load the account, apply the movement and save it back, relying on {@code @Version} to detect conflicts.
+     */
+    OPTIMISTIC,
+    /**
+     * Load the account with {@code PESSIMISTIC_WRITE}, so concurrent writers queue on the row lock instead of
+     * conflicting.
+     */
+    PESSIMISTIC,
+    /**
+     * Keep balances in memory, serialize updates per IBAN and persist them write-behind.
+     */
+    IN_MEMORY,
+    /**
+     * Apply the movement with a single {@code UPDATE ... SET balance = balance + ?}, guarded by the balance check
+     * for withdrawals, so concurrent writers never conflict.
+     */
+    ATOMIC,
+    /**
+     * Append movements to the transaction journal without touching the account row; a background compactor folds
+     * them into the account balance, which serves as the snapshot.
+     */
+    JOURNAL
+}
@@ -0,0 +1,188 @@
+package com.rabo.bank.service.onboarding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabo.bank.dto.CustomerDTO;
+import com.rabo.bank.dto.ImportResultDTO;
+import com.rabo.bank.entities.Account;
+import com.rabo.bank.entities.Customer;
+import com.rabo.bank.entities.ImportJob;
+import com.rabo.bank.entities.OutboxEvent;
+import com.rabo.bank.repository.AccountRepository;
+import com.rabo.bank.repository.CustomerRepository;
+import com.rabo.bank.repository.ImportJobRepository;
+import com.rabo.bank.repository.OutboxEventRepository;
+import com.rabo.bank.service.IbanAllocator;
+import com.rabo.bank.service.ShardRouter;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Opens an account for every customer in a CSV or NDJSON stream. Records are read incrementally and written in
+ * chunks of {@code bank.import.chunk-size}, one transaction per chunk, with customer and account inserts sent as
+ * JDBC batches. Each chunk commits the import position together with the rows it inserted, so an interrupted import
+ * that is started again under the same job id continues after the last committed record.
+ * <p>
+ * Customers whose e-mail address already exists are counted as duplicates and skipped, and malformed or invalid
+ * records are counted as rejected, so one bad record never fails the import.
+ * <p>
+ * With sharding, each customer is written to the shard of its e-mail address, like {@code AccountService} does,
+ * in one transaction per shard and chunk, and the import position is committed afterwards on the first shard. A
+ * chunk interrupted between those commits is read again on resume, and the customers it had already written are
+ * then counted as duplicates.
+ */
+@Service
+public class AccountImportService {
+
+    private final CustomerRepository customerRepository;
+    private final AccountRepository accountRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ImportJobRepository importJobRepository;
+    private final IbanAllocator ibanAllocator;
+    private final ShardRouter shardRouter;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public AccountImportService(CustomerRepository customerRepository,
+                                AccountRepository accountRepository,
+                                OutboxEventRepository outboxEventRepository,
+                                ImportJobRepository importJobRepository,
+                                IbanAllocator ibanAllocator,
+                                ShardRouter shardRouter,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                @Value("${bank.import.chunk-size:1000}") int chunkSize) {
+        this.customerRepository = customerRepository;
+        this.accountRepository = accountRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.importJobRepository = importJobRepository;
+        this.ibanAllocator = ibanAllocator;
+        this.shardRouter = shardRouter;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    public ImportResultDTO importAccounts(String jobId, InputStream input, ImportFormat format) throws IOException {
+        var job = importJobRepository.findById(jobId).orElseGet(() -> new ImportJob(jobId));
+        if (job.isCompleted()) {
+            return ImportResultDTO.of(job);
+        }
+
+        var committed = job.getProcessed();
+        try (var reader = new CustomerRecordReader(input, format, objectMapper)) {
+            List<CustomerDTO> chunk = new ArrayList<>(chunkSize);
+            long position = 0;
+            long rejected = 0;
+
+            String record;
+            while ((record = reader.nextRecord()) != null) {
+                if (++position <= committed) {
+                    continue;
+                }
+
+                var customer = reader.parse(record);
+                if (customer == null || !validator.validate(customer).isEmpty()) {
+                    rejected++;
+                } else {
+                    chunk.add(customer);
+                }
+
+                if (position - committed == chunkSize) {
+                    job = writeChunk(job, chunk, position, rejected);
+                    committed = position;
+                    chunk.clear();
+                    rejected = 0;
+                }
+            }
+
+            job.complete();
+            return ImportResultDTO.of(writeChunk(job, chunk, Math.max(position, committed), rejected));
+        }
+    }
+
+    private ImportJob writeChunk(ImportJob job, List<CustomerDTO> chunk, long position, long rejected) {
+        Map<String, CustomerDTO> byEmail = new LinkedHashMap<>();
+        chunk.forEach(customer -> byEmail.putIfAbsent(customer.emailAddress(), customer));
+
+        if (shardRouter.shardCount() == 1) {
+            return transactionTemplate.execute(status -> {
+                var imported = insert(byEmail, ibanAllocator::nextIban);
+                return advance(job, position, imported, chunk.size() - imported, rejected);
+            });
+        }
+
+        Map<Integer, Map<String, CustomerDTO>> byShard = new TreeMap<>();
+        byEmail.forEach((email, customer) -> byShard
+                .computeIfAbsent(shardRouter.shardOf(email), shard -> new LinkedHashMap<>())
+                .put(email, customer));
+
+        long imported = 0;
+        for (var entry : byShard.entrySet()) {
+            // Account numbers are reserved on the first shard, so they are drawn before the shard's transaction.
+            var ibans = allocateIbans(entry.getKey(), entry.getValue().size());
+            imported += shardRouter.onShard(entry.getKey(), () -> transactionTemplate.execute(
+                    status -> insert(entry.getValue(), ibans.iterator()::next)));
+        }
+
+        var total = imported;
+        return transactionTemplate.execute(status -> advance(job, position, total, chunk.size() - total, rejected));
+    }
+
+    /**
+     * Opens an account for every customer whose e-mail address is not taken yet and returns how many were opened.
+     */
+    private int insert(Map<String, CustomerDTO> byEmail, Supplier<String> ibans) {
+        if (!byEmail.isEmpty()) {
+            customerRepository.findExistingEmails(byEmail.keySet()).forEach(byEmail::remove);
+        }
+
+        List<Customer> customers = byEmail.values().stream().map(CustomerDTO::toEntity).toList();
+        customerRepository.saveAll(customers);
+        var accounts = customers.stream()
+                .map(customer -> new Account(customer.getId(), ibans.get(), 0))
+                .toList();
+        accountRepository.saveAll(accounts);
+        outboxEventRepository.saveAll(accounts.stream()
+                .map(account -> OutboxEvent.accountOpened(account.getIban(), account.getBalance()))
+                .toList());
+
+        // Send the batched inserts now and drop the chunk from the persistence context,
+        // so a long import does not accumulate managed entities.
+        entityManager.flush();
+        entityManager.clear();
+        return customers.size();
+    }
+
+    private ImportJob advance(ImportJob job, long position, long imported, long duplicates, long rejected) {
+        job.advance(position, imported, duplicates, rejected);
+        return importJobRepository.save(job);
+    }
+
+    private List<String> allocateIbans(int shard, int count) {
+        List<String> ibans = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ibans.add(shardRouter.firstOnShard(shard, ibanAllocator::nextIban));
+        }
+        return ibans;
+    }
+}
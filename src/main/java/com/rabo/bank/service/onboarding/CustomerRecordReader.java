@@ -0,0 +1,130 @@
+package com.rabo.bank.service.onboarding;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabo.bank.dto.CustomerDTO;
+import com.rabo.bank.exception.InvalidImportException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads customer records from an import one line at a time, so memory use does not depend on the size of the input.
+ * Reading a record and parsing it are separate steps, which lets a resumed import skip records it already committed
+ * without parsing them.
+ */
+class CustomerRecordReader implements Closeable {
+
+    private static final String FIRST_NAME = "firstName";
+    private static final String ADDRESS = "address";
+    private static final String EMAIL_ADDRESS = "emailAddress";
+
+    private final BufferedReader reader;
+    private final ImportFormat format;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    CustomerRecordReader(InputStream input, ImportFormat format, ObjectMapper objectMapper) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.format = format;
+        this.objectMapper = objectMapper;
+
+        if (format == ImportFormat.CSV) {
+            readHeader();
+        }
+    }
+
+    /**
+     * Returns the next non-blank record, or {@code null} at the end of the input.
+     */
+    String nextRecord() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.isBlank()) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the customer described by a record, or {@code null} when the record is malformed.
+     */
+    CustomerDTO parse(String record) {
+        if (format == ImportFormat.NDJSON) {
+            try {
+                return objectMapper.readValue(record, CustomerDTO.class);
+            } catch (JsonProcessingException e) {
+                return null;
+            }
+        }
+
+        var fields = split(record);
+        if (fields.size() < columns.size()) {
+            return null;
+        }
+        return new CustomerDTO(field(fields, FIRST_NAME), field(fields, ADDRESS), field(fields, EMAIL_ADDRESS));
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void readHeader() throws IOException {
+        var header = nextRecord();
+        if (header == null) {
+            return;
+        }
+
+        var names = split(header.replace("\uFEFF", ""));
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i), i);
+        }
+        if (!columns.keySet().containsAll(List.of(FIRST_NAME, ADDRESS, EMAIL_ADDRESS))) {
+            throw new InvalidImportException("CSV header must contain firstName, address and emailAddress");
+        }
+    }
+
+    private String field(List<String> fields, String column) {
+        var value = fields.get(columns.get(column));
+        return value.isEmpty() ? null : value;
+    }
+
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        var field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().strip());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().strip());
+        return fields;
+    }
+}
@@ -0,0 +1,37 @@
+package com.rabo.bank.service.onboarding;
+
+import org.springframework.http.MediaType;
+
+public enum ImportFormat {
+
+    /**
+     * Comma separated values with a header row naming the {@code firstName}, {@code address} and
+     * {@code emailAddress} columns. Fields may be double quoted; quotes inside a quoted field are doubled.
+     */
+    CSV("text/csv"),
+
+    /**
+     * One JSON {@code CustomerDTO} per line.
+     */
+    NDJSON("application/x-ndjson");
+
+    private final String mediaType;
+
+    ImportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public static ImportFormat fromContentType(String contentType) {
+        var mediaType = MediaType.parseMediaType(contentType);
+        for (var format : values()) {
+            if (MediaType.parseMediaType(format.mediaType).isCompatibleWith(mediaType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported import format " + contentType);
+    }
+}
@@ -0,0 +1,27 @@
+package com.rabo.bank.service.outbox;
+
+import com.rabo.bank.dto.BalanceEventDTO;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Publishes every event as an application event, so in-process consumers subscribe with an
+ * {@code @EventListener} method taking a {@link BalanceEventDTO}. Listeners run on the relay thread unless they are
+ * {@code @Async}, and a listener that throws makes the relay retry the batch.
+ */
+@Component
+public class ApplicationEventSink implements BalanceEventSink {
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public ApplicationEventSink(ApplicationEventPublisher applicationEventPublisher) {
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    @Override
+    public void publish(List<BalanceEventDTO> events) {
+        events.forEach(applicationEventPublisher::publishEvent);
+    }
+}
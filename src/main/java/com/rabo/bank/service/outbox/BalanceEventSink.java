@@ -0,0 +1,14 @@
+package com.rabo.bank.service.outbox;
+
+import com.rabo.bank.dto.BalanceEventDTO;
+
+import java.util.List;
+
+/**
+ * Receives the balance events {@link OutboxRelay} takes from the outbox, oldest first. A sink that throws keeps the
+ * batch in the outbox, and the relay offers it to every sink again on its next run.
+ */
+public interface BalanceEventSink {
+
+    void publish(List<BalanceEventDTO> events);
+}
@@ -0,0 +1,66 @@
+package com.rabo.bank.service.outbox;
+
+import com.rabo.bank.dto.BalanceEventDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Forwards relayed events to the clients subscribed through {@code GET /account/events}. A client only receives
+ * the events relayed while it is connected; one that cannot be written to is dropped rather than holding up the
+ * relay or the other sinks.
+ */
+@Component
+public class BalanceEventStream implements BalanceEventSink {
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final long timeoutMillis;
+
+    public BalanceEventStream(@Value("${bank.outbox.sse.timeout:30m}") Duration timeout) {
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    /**
+     * Subscribes to the events of one account, or of every account when {@code iban} is {@code null}.
+     */
+    public SseEmitter subscribe(String iban) {
+        var subscriber = new Subscriber(iban, new SseEmitter(timeoutMillis));
+        subscriber.emitter().onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter().onTimeout(subscriber.emitter()::complete);
+        subscriber.emitter().onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return subscriber.emitter();
+    }
+
+    @Override
+    public void publish(List<BalanceEventDTO> events) {
+        for (var subscriber : subscribers) {
+            try {
+                for (var event : events) {
+                    if (subscriber.wants(event)) {
+                        subscriber.emitter().send(SseEmitter.event()
+                                .id(Long.toString(event.id()))
+                                .name(event.type().name())
+                                .data(event, MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(subscriber);
+                subscriber.emitter().completeWithError(e);
+            }
+        }
+    }
+
+    private record Subscriber(String iban, SseEmitter emitter) {
+
+        boolean wants(BalanceEventDTO event) {
+            return iban == null || iban.equals(event.iban());
+        }
+    }
+}
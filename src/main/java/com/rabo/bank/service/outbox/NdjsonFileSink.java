@@ -0,0 +1,63 @@
+package com.rabo.bank.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabo.bank.dto.BalanceEventDTO;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends every event as one JSON line to {@code bank.outbox.file}. Each batch is synced to the device before the
+ * relay deletes it from the outbox, so a crash can repeat lines at the end of the file but never lose them.
+ */
+@Component
+@ConditionalOnProperty(name = "bank.outbox.file")
+public class NdjsonFileSink implements BalanceEventSink {
+
+    private final ObjectMapper objectMapper;
+    private final FileChannel channel;
+
+    public NdjsonFileSink(ObjectMapper objectMapper, @Value("${bank.outbox.file}") Path file) throws IOException {
+        this.objectMapper = objectMapper;
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void publish(List<BalanceEventDTO> events) {
+        try {
+            var lines = new ByteArrayOutputStream();
+            for (var event : events) {
+                objectMapper.writeValue(lines, event);
+                lines.write('\n');
+            }
+
+            var buffer = ByteBuffer.wrap(lines.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
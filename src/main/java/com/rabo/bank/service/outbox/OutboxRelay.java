@@ -0,0 +1,91 @@
+package com.rabo.bank.service.outbox;
+
+import com.rabo.bank.entities.OutboxEvent;
+import com.rabo.bank.repository.OutboxEventRepository;
+import com.rabo.bank.service.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Publishes the balance events the ledgers write to {@code outbox_event} in the transaction of each change, and
+ * deletes them once every {@link BalanceEventSink} has accepted them. Each shard is drained oldest first, in batches
+ * of {@code bank.outbox.batch-size} with one transaction per batch.
+ * <p>
+ * Delivery is at least once: a batch that a sink rejected, or whose delete did not commit, is published again on
+ * the next run, and so is a batch relayed by two application nodes at the same time. Consumers drop events whose
+ * id they have already seen.
+ */
+@Component
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<BalanceEventSink> sinks;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Counter published;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       List<BalanceEventSink> sinks,
+                       ShardRouter shardRouter,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${bank.outbox.batch-size:500}") int batchSize,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = sinks;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.published = meterRegistry.counter("bank.outbox.published");
+    }
+
+    @Scheduled(fixedDelayString = "${bank.outbox.relay-interval-ms:200}")
+    public void relay() {
+        RuntimeException failure = null;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            try {
+                shardRouter.runOnShard(shard, this::drain);
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void drain() {
+        Integer relayed;
+        do {
+            relayed = transactionTemplate.execute(status -> relayBatch());
+        } while (relayed != null && relayed == batchSize);
+    }
+
+    private int relayBatch() {
+        var events = outboxEventRepository.findOldest(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        var batch = events.stream().map(OutboxEvent::toDTO).toList();
+        for (var sink : sinks) {
+            sink.publish(batch);
+        }
+
+        outboxEventRepository.deleteByIds(events.stream().map(OutboxEvent::getId).toList());
+        published.increment(events.size());
+        return events.size();
+    }
+}
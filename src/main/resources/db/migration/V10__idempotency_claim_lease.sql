@@ -0,0 +1,7 @@
+-- A claim is held by the request that took it, identified by claim_token, until leased_until. The owner extends the
+-- lease while the mutation runs, so only a claim whose owner is gone can be taken over.
+ALTER TABLE idempotency_key ADD COLUMN claim_token VARCHAR(36);
+ALTER TABLE idempotency_key ADD COLUMN leased_until TIMESTAMP WITH TIME ZONE;
+
+-- Nobody renews the claims taken before this version, so they can be taken over right away
+UPDATE idempotency_key SET leased_until = created_at WHERE balance IS NULL;
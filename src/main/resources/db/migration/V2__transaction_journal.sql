@@ -0,0 +1,14 @@
+CREATE SEQUENCE transaction_journal_seq START WITH 1 INCREMENT BY 50;
+
+-- Every balance movement is appended here. Entries already reflected in account.balance are folded;
+-- the balance of an account is account.balance plus the sum of its unfolded entries.
+CREATE TABLE transaction_journal (
+    id BIGINT PRIMARY KEY,
+    iban VARCHAR(34) NOT NULL,
+    amount DECIMAL(19, 2) NOT NULL,
+    folded BOOLEAN NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    FOREIGN KEY (iban) REFERENCES account(iban) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_transaction_journal_iban_folded ON transaction_journal (iban, folded);
@@ -0,0 +1,16 @@
+-- Customers and accounts take their ids from pooled sequences instead of IDENTITY, so Hibernate can batch inserts.
+-- Ids issued by the identity columns so far stay well below the start values.
+CREATE SEQUENCE customer_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE account_seq START WITH 1000 INCREMENT BY 50;
+
+-- Progress of bulk account imports. processed_records is the number of input records already committed,
+-- so an interrupted import resumes after it.
+CREATE TABLE account_import_job (
+    id VARCHAR(100) PRIMARY KEY,
+    processed_records BIGINT NOT NULL,
+    imported BIGINT NOT NULL,
+    duplicates BIGINT NOT NULL,
+    rejected BIGINT NOT NULL,
+    completed BOOLEAN NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,10 @@
+-- Next free account number per country and bank code. Application nodes reserve numbers from here in blocks
+-- and hand them out from memory, so generated IBANs never collide.
+CREATE TABLE iban_block (
+    country_code VARCHAR(2) NOT NULL,
+    bank_code VARCHAR(11) NOT NULL,
+    next_number BIGINT NOT NULL,
+    PRIMARY KEY (country_code, bank_code)
+);
+
+INSERT INTO iban_block (country_code, bank_code, next_number) VALUES ('NL', 'RABO', 1);
@@ -0,0 +1,2 @@
+-- Statements page and stream through an account's journal in id order.
+CREATE INDEX idx_transaction_journal_iban_id ON transaction_journal (iban, id);
@@ -0,0 +1,9 @@
+-- Results of mutations sent with an Idempotency-Key. A row without balance is claimed by a request still running.
+CREATE TABLE idempotency_key (
+    id VARCHAR(255) PRIMARY KEY,
+    fingerprint VARCHAR(255) NOT NULL,
+    balance DECIMAL(19, 2),
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_idempotency_key_created_at ON idempotency_key (created_at);
@@ -0,0 +1,10 @@
+-- PostgreSQL does not index foreign key columns by itself. Without this, every customer delete scans account
+-- for the cascade, and finding the accounts of a customer is a sequential scan.
+CREATE INDEX idx_account_customer_id ON account (customer_id);
+
+-- The journal compactor looks for accounts with unfolded entries across all accounts.
+CREATE INDEX idx_transaction_journal_folded_iban ON transaction_journal (folded, iban);
+
+-- findByIban is served by the unique index on account.iban. It is deliberately not widened into a covering
+-- index with balance: balance changes on every movement, and indexing it would rule out heap-only updates
+-- on PostgreSQL, so every deposit would also have to write the index.
@@ -0,0 +1,21 @@
+-- Transfers between accounts on different shards whose deposit is not confirmed yet. Written on the source shard
+-- in the transaction of the withdrawal and deleted once the transfer is completed or paid back.
+CREATE TABLE pending_transfer (
+    id VARCHAR(36) PRIMARY KEY,
+    from_iban VARCHAR(34) NOT NULL,
+    to_iban VARCHAR(34) NOT NULL,
+    amount DECIMAL(19, 2) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_pending_transfer_created_at ON pending_transfer (created_at);
+
+-- Outcome of a cross-shard transfer on the target shard: DEPOSITED in the transaction of the deposit, or
+-- CANCELLED before the withdrawal is paid back. The primary key lets only one of them happen.
+CREATE TABLE transfer_outcome (
+    id VARCHAR(36) PRIMARY KEY,
+    outcome VARCHAR(10) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_transfer_outcome_created_at ON transfer_outcome (created_at);
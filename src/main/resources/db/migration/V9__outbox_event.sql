@@ -0,0 +1,13 @@
+CREATE SEQUENCE outbox_event_seq START WITH 1 INCREMENT BY 50;
+
+-- Balance events written in the transaction of the change they describe and deleted once the relay has
+-- published them. No foreign key to account: events are only inserted and deleted, and checking the parent
+-- row would add a lookup to every movement.
+CREATE TABLE outbox_event (
+    id BIGINT PRIMARY KEY,
+    iban VARCHAR(34) NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    amount DECIMAL(19, 2) NOT NULL,
+    balance DECIMAL(19, 2) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,156 @@
+package com.rabo.bank;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the application with the {@code durable} profile in a separate JVM, deposits into one account from many
+ * clients and kills the JVM with SIGKILL in the middle of the load. The database file is then opened directly:
+ * H2 has to recover it, every acknowledged deposit has to be in the balance, and the balance has to match the
+ * journal.
+ */
+class CrashRecoveryIT {
+
+    private static final Logger log = LoggerFactory.getLogger(CrashRecoveryIT.class);
+
+    private static final int CLIENTS = 50;
+    private static final String IBAN = "NL49RABO0417164300";
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+    private static final String AUTHORIZATION =
+            "Basic " + Base64.getEncoder().encodeToString("admin:password".getBytes(StandardCharsets.UTF_8));
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void acknowledgedDeposits_shouldSurviveKilledJvm() throws Exception {
+        var database = directory.resolve("bank");
+        int port;
+        try (var socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        var process = new ProcessBuilder(ProcessHandle.current().info().command().orElse("java"),
+                "-cp", System.getProperty("java.class.path"),
+                BankApplication.class.getName(),
+                "--spring.profiles.active=durable",
+                "--server.port=" + port,
+                "--bank.h2.path=" + database,
+                "--bank.h2.durability=COMMIT",
+                "--bank.account.write-strategy=ATOMIC",
+                "--bank.admission.enabled=false")
+                .redirectErrorStream(true)
+                .redirectOutput(directory.resolve("application.log").toFile())
+                .start();
+
+        var attempted = new AtomicInteger();
+        var acknowledged = new AtomicInteger();
+        try {
+            awaitStarted("http://localhost:" + port);
+
+            var stopped = new AtomicBoolean();
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < CLIENTS; c++) {
+                    executor.submit(() -> {
+                        while (!stopped.get()) {
+                            attempted.incrementAndGet();
+                            try {
+                                if (deposit("http://localhost:" + port).statusCode() == 200) {
+                                    acknowledged.incrementAndGet();
+                                }
+                            } catch (IOException e) {
+                                return null;
+                            }
+                        }
+                        return null;
+                    });
+                }
+
+                Thread.sleep(3_000);
+                process.destroyForcibly().waitFor();
+                stopped.set(true);
+            }
+        } finally {
+            process.destroyForcibly();
+        }
+
+        BigDecimal balance;
+        BigDecimal journal;
+        try (var connection = DriverManager.getConnection(
+                "jdbc:h2:file:" + database + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE", "admin", "password")) {
+            balance = queryDecimal(connection, "SELECT balance FROM account WHERE iban = ?");
+            journal = queryDecimal(connection, "SELECT COALESCE(SUM(amount), 0) FROM transaction_journal WHERE iban = ?");
+        }
+
+        var deposited = balance.subtract(INITIAL_BALANCE);
+        log.info("Attempted {}, acknowledged {}, recovered {} deposits", attempted.get(), acknowledged.get(), deposited);
+
+        assertTrue(acknowledged.get() > 0);
+        assertTrue(deposited.compareTo(BigDecimal.valueOf(acknowledged.get())) >= 0, "Acknowledged deposits were lost");
+        assertTrue(deposited.compareTo(BigDecimal.valueOf(attempted.get())) <= 0, "More deposits recovered than sent");
+        assertEquals(0, deposited.compareTo(journal), "Balance does not match the journal");
+    }
+
+    private void awaitStarted(String baseUri) throws Exception {
+        var request = HttpRequest.newBuilder(URI.create(baseUri + "/actuator/health"))
+                .header("Authorization", AUTHORIZATION)
+                .build();
+        long deadline = System.nanoTime() + Duration.ofSeconds(60).toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet.
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException("Application did not start, see " + directory.resolve("application.log"));
+    }
+
+    private HttpResponse<Void> deposit(String baseUri) throws IOException, InterruptedException {
+        var request = HttpRequest.newBuilder(URI.create(baseUri + "/account/" + IBAN + "/deposit"))
+                .header("Authorization", AUTHORIZATION)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"amount\":1.00}"))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static BigDecimal queryDecimal(Connection connection, String sql) throws Exception {
+        try (var statement = connection.prepareStatement(sql)) {
+            statement.setString(1, IBAN);
+            try (var resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getBigDecimal(1);
+            }
+        }
+    }
+}
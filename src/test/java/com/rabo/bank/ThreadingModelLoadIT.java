@@ -0,0 +1,154 @@
+package com.rabo.bank;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Drives the same deposit load through the application once on Tomcat's platform thread pool and once with the
+ * {@code virtual-threads} profile, and logs throughput, latency percentiles, the peak number of live platform threads
+ * and the peak number of database connections in use for both runs. Set {@code -Dload.clients=10000} to compare
+ * with {@code ReactiveLoadIT} of the reactive module.
+ */
+class ThreadingModelLoadIT {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadingModelLoadIT.class);
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 1_000);
+    private static final int REQUESTS_PER_CLIENT = 20;
+    private static final int ACCOUNTS = 50;
+    private static final String AUTHORIZATION =
+            "Basic " + Base64.getEncoder().encodeToString("admin:password".getBytes(StandardCharsets.UTF_8));
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @Test
+    void compareVirtualAndPlatformThreads() throws Exception {
+        var platform = run(false);
+        var virtual = run(true);
+
+        log.info("Platform threads: {}", platform);
+        log.info("Virtual threads:  {}", virtual);
+
+        assertEquals(0, platform.failures());
+        assertEquals(0, virtual.failures());
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        var builder = new SpringApplicationBuilder(BankApplication.class);
+        if (virtualThreads) {
+            builder.profiles("virtual-threads");
+        }
+
+        // Arguments, unlike builder properties, take precedence over application.properties
+        try (var context = builder.run("--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:load-" + UUID.randomUUID()
+                        + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+                "--bank.account.write-strategy=ATOMIC",
+                // The load is meant to queue on threads and connections, not to be turned away with 429.
+                "--bank.admission.enabled=false")) {
+            var baseUri = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            var ibans = openAccounts(baseUri);
+            var pool = context.getBean(HikariDataSource.class).getHikariPoolMXBean();
+
+            var threads = ManagementFactory.getThreadMXBean();
+            threads.resetPeakThreadCount();
+            var peakConnections = new AtomicInteger();
+            var sampler = Executors.newSingleThreadScheduledExecutor();
+            sampler.scheduleAtFixedRate(() -> peakConnections.accumulateAndGet(pool.getActiveConnections(), Math::max),
+                    0, 5, TimeUnit.MILLISECONDS);
+
+            var failures = new AtomicInteger();
+            var latencies = new long[CLIENTS * REQUESTS_PER_CLIENT];
+            long began = System.nanoTime();
+
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> futures = new ArrayList<>(CLIENTS);
+                for (int c = 0; c < CLIENTS; c++) {
+                    int clientId = c;
+                    futures.add(executor.submit(() -> {
+                        for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                            var iban = ibans.get((clientId + r) % ibans.size());
+                            long start = System.nanoTime();
+                            var response = post(baseUri + "/account/" + iban + "/deposit", "{\"amount\":1.00}");
+                            latencies[clientId * REQUESTS_PER_CLIENT + r] = System.nanoTime() - start;
+                            if (response.statusCode() != 200) {
+                                failures.incrementAndGet();
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (var future : futures) {
+                    future.get();
+                }
+            } finally {
+                sampler.shutdownNow();
+            }
+
+            long elapsed = System.nanoTime() - began;
+            Arrays.sort(latencies);
+            return new Result(latencies.length / (elapsed / 1_000_000_000.0),
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), failures.get(),
+                    threads.getPeakThreadCount(), peakConnections.get(), pool.getTotalConnections());
+        }
+    }
+
+    private List<String> openAccounts(String baseUri) throws Exception {
+        List<String> ibans = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            var body = "{\"firstName\":\"Load\",\"address\":\"1 Load St\",\"emailAddress\":\"" + UUID.randomUUID() + "@example.com\"}";
+            var response = post(baseUri + "/account", body);
+            ibans.add(objectMapper.readTree(response.body()).get("iban").asText());
+        }
+        return ibans;
+    }
+
+    private HttpResponse<String> post(String uri, String body) throws Exception {
+        var request = HttpRequest.newBuilder(URI.create(uri))
+                .header("Authorization", AUTHORIZATION)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private record Result(double requestsPerSecond, double p50Millis, double p99Millis, int failures,
+                          int peakThreads, int peakConnections, int poolSize) {
+
+        @Override
+        public String toString() {
+            return String.format("%.0f req/s, p50 %.2f ms, p99 %.2f ms, %d failures, peak %d threads, peak %d of %d connections",
+                    requestsPerSecond, p50Millis, p99Millis, failures, peakThreads, peakConnections, poolSize);
+        }
+    }
+}
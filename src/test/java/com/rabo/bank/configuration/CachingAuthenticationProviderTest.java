@@ -0,0 +1,70 @@
+package com.rabo.bank.configuration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingAuthenticationProviderTest {
+
+    @Mock
+    private AuthenticationProvider delegate;
+
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        provider = new CachingAuthenticationProvider(delegate, Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    void authenticate_shouldVerifyPasswordOnlyOnce() {
+        var authenticated = UsernamePasswordAuthenticationToken.authenticated("admin", null, List.of());
+        when(delegate.authenticate(any())).thenReturn(authenticated);
+
+        assertSame(authenticated, provider.authenticate(login("admin", "password")));
+        assertSame(authenticated, provider.authenticate(login("admin", "password")));
+
+        verify(delegate).authenticate(any());
+    }
+
+    @Test
+    void authenticate_shouldNotCacheFailures() {
+        when(delegate.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(login("admin", "wrong")));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(login("admin", "wrong")));
+
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    void authenticate_shouldVerifyAnotherPasswordAgain() {
+        when(delegate.authenticate(any()))
+                .thenReturn(UsernamePasswordAuthenticationToken.authenticated("admin", null, List.of()))
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+
+        provider.authenticate(login("admin", "password"));
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(login("admin", "wrong")));
+    }
+
+    private static UsernamePasswordAuthenticationToken login(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+}
@@ -1,8 +1,12 @@
 package com.rabo.bank.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabo.bank.dto.BatchRequestDTO;
+import com.rabo.bank.dto.BatchTransactionDTO;
 import com.rabo.bank.dto.CustomerDTO;
+import com.rabo.bank.dto.TokenDTO;
 import com.rabo.bank.dto.TransactionDTO;
+import com.rabo.bank.dto.TransactionType;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,9 +15,11 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.Base64Utils;
 
 import java.math.BigDecimal;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -23,6 +29,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @Transactional
 class AccountControllerIT {
 
+    private static final String AUTHORIZATION =
+            "Basic " + Base64.getEncoder().encodeToString("admin:password".getBytes());
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -39,7 +48,7 @@ class AccountControllerIT {
         var customerDTO = new CustomerDTO("John", "123 Main St", "email@example.com");
 
         mockMvc.perform(post("/account")
-                        .header("Authorization", "Basic " + Base64Utils.encodeToString("admin:password".getBytes()))
+                        .header("Authorization", AUTHORIZATION)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(customerDTO)))
                 .andExpect(status().isOk())
@@ -51,7 +60,7 @@ class AccountControllerIT {
         var iban = "NL49RABO0417164300";
 
         mockMvc.perform(get("/account/{iban}/balance", iban)
-                        .header("Authorization", "Basic " + Base64Utils.encodeToString("admin:password".getBytes()))
+                        .header("Authorization", AUTHORIZATION)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.balance").isNotEmpty());
@@ -63,7 +72,7 @@ class AccountControllerIT {
         var transactionDTO = new TransactionDTO(BigDecimal.valueOf(500));
 
         mockMvc.perform(post("/account/{iban}/deposit", iban)
-                        .header("Authorization", "Basic " + Base64Utils.encodeToString("admin:password".getBytes()))
+                        .header("Authorization", AUTHORIZATION)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(transactionDTO)))
                 .andExpect(status().isOk())
@@ -76,7 +85,7 @@ class AccountControllerIT {
         var transactionDTO = new TransactionDTO(BigDecimal.valueOf(500));
 
         mockMvc.perform(post("/account/{iban}/withdraw", iban)
-                        .header("Authorization", "Basic " + Base64Utils.encodeToString("admin:password".getBytes()))
+                        .header("Authorization", AUTHORIZATION)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(transactionDTO)))
                 .andExpect(status().isOk())
@@ -89,7 +98,7 @@ class AccountControllerIT {
         var transactionDTO = new TransactionDTO(BigDecimal.valueOf(2000));
 
         mockMvc.perform(post("/account/{iban}/withdraw", iban)
-                        .header("Authorization", "Basic " + Base64Utils.encodeToString("admin:password".getBytes()))
+                        .header("Authorization", AUTHORIZATION)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(transactionDTO)))
                 .andExpect(status().isBadRequest())
@@ -101,8 +110,130 @@ class AccountControllerIT {
         var iban = "NL91ABNA0000000000";
 
         mockMvc.perform(get("/account/{iban}/balance", iban)
-                        .header("Authorization", "Basic " + Base64Utils.encodeToString("admin:password".getBytes()))
+                        .header("Authorization", AUTHORIZATION)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    void applyBatch_shouldReportResultPerEntry() throws Exception {
+        var batchRequestDTO = new BatchRequestDTO(List.of(
+                new BatchTransactionDTO("NL49RABO0417164300", TransactionType.DEPOSIT, BigDecimal.valueOf(500)),
+                new BatchTransactionDTO("NL49RABO0417164301", TransactionType.WITHDRAW, BigDecimal.valueOf(5000)),
+                new BatchTransactionDTO("NL91ABNA0000000000", TransactionType.DEPOSIT, BigDecimal.valueOf(100))));
+
+        mockMvc.perform(post("/account/transactions/batch")
+                        .header("Authorization", AUTHORIZATION)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequestDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].success").value(true))
+                .andExpect(jsonPath("$[1].success").value(false))
+                .andExpect(jsonPath("$[1].message").value("Insufficient balance"))
+                .andExpect(jsonPath("$[2].message").value("Account not found"));
+
+        mockMvc.perform(get("/account/{iban}/balance", "NL49RABO0417164300")
+                        .header("Authorization", AUTHORIZATION))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value("1500.00"));
+    }
+
+    @Test
+    void importAccounts_shouldOpenAccountPerNewCustomer() throws Exception {
+        var csv = """
+                firstName,address,emailAddress
+                Anna,1 Import St,anna.import@example.com
+                John,123 Main St,john.doe@example.com
+                """;
+
+        mockMvc.perform(post("/account/import")
+                        .param("jobId", "it-import")
+                        .header("Authorization", AUTHORIZATION)
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processed").value(2))
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.duplicates").value(1))
+                .andExpect(jsonPath("$.completed").value(true));
+    }
+
+    @Test
+    void getStatement_shouldListMovementsInBookingOrder() throws Exception {
+        var iban = "NL49RABO0417164301";
+
+        mockMvc.perform(post("/account/{iban}/deposit", iban)
+                        .header("Authorization", AUTHORIZATION)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TransactionDTO(BigDecimal.valueOf(100)))))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/account/{iban}/withdraw", iban)
+                        .header("Authorization", AUTHORIZATION)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TransactionDTO(BigDecimal.valueOf(40)))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/account/{iban}/statement", iban)
+                        .param("size", "1")
+                        .header("Authorization", AUTHORIZATION))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries[0].amount").value("100.00"))
+                .andExpect(jsonPath("$.nextCursor").isNumber());
+    }
+
+    @Test
+    void deposit_shouldApplyOnce_whenRetriedWithSameIdempotencyKey() throws Exception {
+        var iban = "NL49RABO0417164300";
+        var idempotencyKey = UUID.randomUUID().toString();
+        var transactionDTO = new TransactionDTO(BigDecimal.valueOf(500));
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/account/{iban}/deposit", iban)
+                            .header("Authorization", AUTHORIZATION)
+                            .header("Idempotency-Key", idempotencyKey)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(transactionDTO)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.balance").value("1500.00"));
+        }
+
+        mockMvc.perform(post("/account/{iban}/withdraw", iban)
+                        .header("Authorization", AUTHORIZATION)
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transactionDTO)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void getBalance_shouldAcceptIssuedBearerToken() throws Exception {
+        var response = mockMvc.perform(post("/auth/token")
+                        .header("Authorization", AUTHORIZATION))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tokenType").value("Bearer"))
+                .andReturn().getResponse().getContentAsString();
+        var token = objectMapper.readValue(response, TokenDTO.class);
+
+        mockMvc.perform(get("/account/{iban}/balance", "NL49RABO0417164300")
+                        .header("Authorization", "Bearer " + token.accessToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").isNotEmpty());
+
+        mockMvc.perform(get("/account/{iban}/balance", "NL49RABO0417164300")
+                        .header("Authorization", "Bearer " + token.accessToken() + "x"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void issueToken_shouldRejectBearerToken() throws Exception {
+        var response = mockMvc.perform(post("/auth/token")
+                        .header("Authorization", AUTHORIZATION))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        var token = objectMapper.readValue(response, TokenDTO.class);
+
+        mockMvc.perform(post("/auth/token")
+                        .header("Authorization", "Bearer " + token.accessToken()))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,63 @@
+package com.rabo.bank.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabo.bank.dto.CustomerDTO;
+import com.rabo.bank.dto.TransactionDTO;
+import com.rabo.bank.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:admission;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "bank.admission.iban.rate=0.001",
+        "bank.admission.iban.burst=2"
+})
+@AutoConfigureMockMvc
+class AdmissionControlIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Test
+    void deposit_shouldReturnTooManyRequests_whenTheAccountExceedsItsRate() throws Exception {
+        var iban = accountService.openAccount(
+                new CustomerDTO("Admission", "1 Admission St", UUID.randomUUID() + "@example.com")).iban();
+
+        deposit(iban).andExpect(status().isOk());
+        deposit(iban).andExpect(status().isOk());
+        deposit(iban)
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.message").value("Too many requests for account " + iban));
+
+        mockMvc.perform(get("/account/{iban}/balance", iban)
+                        .header("Authorization", "Basic " + Base64.getEncoder().encodeToString("admin:password".getBytes())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value("2.00"));
+    }
+
+    private ResultActions deposit(String iban) throws Exception {
+        return mockMvc.perform(post("/account/{iban}/deposit", iban)
+                .header("Authorization", "Basic " + Base64.getEncoder().encodeToString("admin:password".getBytes()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new TransactionDTO(BigDecimal.ONE))));
+    }
+}
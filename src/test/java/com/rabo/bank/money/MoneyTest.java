@@ -0,0 +1,67 @@
+package com.rabo.bank.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabo.bank.dto.BalanceDTO;
+import com.rabo.bank.exception.TransactionNotAllowedException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void toCents_shouldRoundToTwoDecimals() {
+        assertEquals(150_000L, Money.toCents(new BigDecimal("1500")));
+        assertEquals(150_050L, Money.toCents(new BigDecimal("1500.5")));
+        assertEquals(101L, Money.toCents(new BigDecimal("1.005")));
+        assertEquals(new BigDecimal("1500.00"), Money.toDecimal(150_000L));
+    }
+
+    @Test
+    void toCents_shouldRejectAmountsBeyondLongRange() {
+        assertThrows(TransactionNotAllowedException.class, () -> Money.toCents(new BigDecimal("1E20")));
+    }
+
+    @Test
+    void format_shouldWriteTwoDecimals() {
+        assertEquals("1500.00", format(150_000L));
+        assertEquals("0.05", format(5L));
+        assertEquals("0.00", format(0L));
+        assertEquals("-12.30", format(-1_230L));
+        assertEquals("-92233720368547758.08", format(Long.MIN_VALUE));
+    }
+
+    @Test
+    void parse_shouldAcceptPlainDecimals() {
+        assertEquals(150_000L, parse("1500.00"));
+        assertEquals(150_000L, parse("1500"));
+        assertEquals(150_050L, parse("1500.5"));
+        assertEquals(-1_230L, parse("-12.30"));
+        assertEquals(101L, parse("1.005"));
+        assertThrows(NumberFormatException.class, () -> parse("-"));
+    }
+
+    @Test
+    void balance_shouldKeepItsJsonContract() throws Exception {
+        var json = objectMapper.writeValueAsString(new BalanceDTO(150_000L));
+
+        assertEquals("{\"balance\":\"1500.00\"}", json);
+        assertEquals(new BalanceDTO(150_000L), objectMapper.readValue(json, BalanceDTO.class));
+        assertEquals(new BalanceDTO(150_050L), objectMapper.readValue("{\"balance\":1500.5}", BalanceDTO.class));
+    }
+
+    private static String format(long cents) {
+        var buffer = new char[Money.MAX_FORMATTED_LENGTH];
+        int start = Money.format(cents, buffer);
+        return new String(buffer, start, buffer.length - start);
+    }
+
+    private static long parse(String text) {
+        return Money.parse(text.toCharArray(), 0, text.length());
+    }
+}
@@ -1,27 +1,44 @@
 package com.rabo.bank.service;
 
+import com.rabo.bank.configuration.CacheConfig;
+import com.rabo.bank.dto.BalanceEventType;
+import com.rabo.bank.dto.BatchTransactionDTO;
 import com.rabo.bank.dto.CustomerDTO;
 import com.rabo.bank.dto.TransactionDTO;
+import com.rabo.bank.dto.TransactionType;
+import com.rabo.bank.dto.TransferDTO;
 import com.rabo.bank.entities.Account;
 import com.rabo.bank.entities.Customer;
 import com.rabo.bank.exception.TransactionNotAllowedException;
 import com.rabo.bank.repository.AccountRepository;
+import com.rabo.bank.repository.JournalEntryRepository;
+import com.rabo.bank.repository.OutboxEventRepository;
+import com.rabo.bank.service.ledger.JpaLedger;
+import com.rabo.bank.service.ledger.WriteStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.persistence.OptimisticLockException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
@@ -35,25 +52,47 @@ class AccountServiceTest {
     @Mock
     private AccountRepository accountRepository;
 
+    @Mock
+    private JournalEntryRepository journalEntryRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
     @Mock
     private CustomerService customerService;
 
-    @InjectMocks
+    @Mock
+    private IbanAllocator ibanAllocator;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
     private AccountService accountService;
 
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        accountService = accountService(1);
+    }
+
     @Test
     void openAccount_shouldCreateAccount() {
         var customerDTO = new CustomerDTO("John", "123 Main St", "john.doe@example.com");
         var customer = new Customer("John", "123 Main St", "john.doe@example.com");
 
         when(customerService.createCustomer(any(CustomerDTO.class))).thenReturn(customer);
-        when(accountRepository.save(any(Account.class))).thenReturn(new Account(customer.getId(), "NL91RABO0417164300", BigDecimal.ZERO));
+        when(ibanAllocator.nextIban()).thenReturn("NL91RABO0417164300");
+        when(accountRepository.save(any(Account.class))).thenReturn(new Account(customer.getId(), "NL91RABO0417164300", 0L));
 
         var account = accountService.openAccount(customerDTO);
 
         assertNotNull(account);
         assertEquals("123 Main St", account.address());
         assertEquals("NL91RABO0417164300", account.iban());
+        verify(outboxEventRepository).save(argThat(event -> event.getType() == BalanceEventType.ACCOUNT_OPENED
+                && "NL91RABO0417164300".equals(event.getIban())));
     }
 
     @Test
@@ -61,12 +100,13 @@ class AccountServiceTest {
         var iban = "NL91RABO0417164300";
         var transactionDTO = new TransactionDTO(BigDecimal.valueOf(500));
 
-        var account = new Account(1L, iban, BigDecimal.valueOf(1000));
+        var account = new Account(1L, iban, 100_000L);
         when(accountRepository.findByIban(iban)).thenReturn(Optional.of(account));
 
-        accountService.deposit(iban, transactionDTO);
+        var balance = accountService.deposit(iban, transactionDTO);
 
-        assertEquals(BigDecimal.valueOf(1500), account.getBalance());
+        assertEquals(150_000L, account.getBalance());
+        assertEquals(150_000L, balance.balance());
         verify(accountRepository, times(1)).save(account);
     }
 
@@ -75,10 +115,11 @@ class AccountServiceTest {
         var iban = "NL91RABO0417164300";
         var transactionDTO = new TransactionDTO(BigDecimal.valueOf(2000));
 
-        var account = new Account(1L, iban, BigDecimal.valueOf(1000));
+        var account = new Account(1L, iban, 100_000L);
         when(accountRepository.findByIban(iban)).thenReturn(Optional.of(account));
 
         assertThrows(TransactionNotAllowedException.class, () -> accountService.withdraw(iban, transactionDTO));
+        assertEquals(1, rejections("insufficient_balance"));
     }
 
     @Test
@@ -89,6 +130,7 @@ class AccountServiceTest {
         when(accountRepository.findByIban(iban)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> accountService.deposit(iban, transactionDTO));
+        assertEquals(1, rejections("not_found"));
     }
 
     @Test
@@ -96,12 +138,13 @@ class AccountServiceTest {
         var iban = "NL91RABO0417164300";
         var transactionDTO = new TransactionDTO(BigDecimal.valueOf(500));
 
-        var account = new Account(1L, iban, BigDecimal.valueOf(1000));
+        var account = new Account(1L, iban, 100_000L);
         when(accountRepository.findByIban(iban)).thenReturn(Optional.of(account));
 
-        accountService.withdraw(iban, transactionDTO);
+        var balance = accountService.withdraw(iban, transactionDTO);
 
-        assertEquals(BigDecimal.valueOf(500), account.getBalance());
+        assertEquals(50_000L, account.getBalance());
+        assertEquals(50_000L, balance.balance());
         verify(accountRepository, times(1)).save(account);
     }
 
@@ -109,7 +152,7 @@ class AccountServiceTest {
     void testOptimisticLockingException() {
         var iban = "NL91RABO0417164300";
 
-        var account = new Account(1L, iban, BigDecimal.valueOf(3000));
+        var account = new Account(1L, iban, 300_000L);
         when(accountRepository.findByIban(account.getIban())).thenReturn(Optional.of(account));
 
         doThrow(new OptimisticLockException("Simulated Optimistic Locking Failure"))
@@ -118,5 +161,94 @@ class AccountServiceTest {
         assertThrows(TransactionNotAllowedException.class, () -> {
             accountService.withdraw(account.getIban(), new TransactionDTO(BigDecimal.valueOf(1500)));
         });
+        assertEquals(1, rejections("optimistic_lock"));
+        assertEquals(0, rejections("insufficient_balance"));
+    }
+
+    @Test
+    void withdraw_shouldRetryAfterOptimisticLockingConflict() {
+        var iban = "NL91RABO0417164300";
+        var stale = new Account(1L, iban, 300_000L);
+        var fresh = new Account(1L, iban, 200_000L);
+        when(accountRepository.findByIban(iban)).thenReturn(Optional.of(stale), Optional.of(fresh));
+        doThrow(new OptimisticLockException("Simulated Optimistic Locking Failure"))
+                .when(accountRepository).save(stale);
+
+        var balance = accountService(3).withdraw(iban, new TransactionDTO(BigDecimal.valueOf(1500)));
+
+        assertEquals(50_000L, balance.balance());
+        assertEquals(1, meterRegistry.counter("bank.account.retries").count());
+        assertEquals(0, rejections("optimistic_lock"));
+    }
+
+    @Test
+    void applyBatch_shouldApplyValidEntriesAndReportRejectedOnes() {
+        var iban = "NL91RABO0417164300";
+        var missingIban = "NL91ABNA0000000000";
+        var account = new Account(1L, iban, 100_000L);
+
+        when(accountRepository.findAllByIbanIn(anyCollection())).thenReturn(List.of(account));
+
+        var results = accountService.applyBatch(List.of(
+                new BatchTransactionDTO(iban, TransactionType.DEPOSIT, BigDecimal.valueOf(500)),
+                new BatchTransactionDTO(iban, TransactionType.WITHDRAW, BigDecimal.valueOf(2000)),
+                new BatchTransactionDTO(missingIban, TransactionType.DEPOSIT, BigDecimal.valueOf(100)),
+                new BatchTransactionDTO(iban, TransactionType.WITHDRAW, BigDecimal.valueOf(300))));
+
+        assertTrue(results.get(0).success());
+        assertFalse(results.get(1).success());
+        assertEquals("Insufficient balance", results.get(1).message());
+        assertFalse(results.get(2).success());
+        assertEquals("Account not found", results.get(2).message());
+        assertTrue(results.get(3).success());
+        assertEquals(120_000L, account.getBalance());
+        verify(accountRepository, times(1)).findAllByIbanIn(anyCollection());
+        verify(accountRepository, times(1)).flush();
+    }
+
+    @Test
+    void transfer_shouldMoveAmountBetweenLockedAccounts() {
+        var from = new Account(1L, "NL91RABO0417164300", 100_000L);
+        var to = new Account(2L, "NL91RABO0417164301", 20_000L);
+
+        when(accountRepository.lockAllByIbanIn(anyCollection())).thenReturn(List.of(from, to));
+
+        var balance = accountService.transfer(new TransferDTO(from.getIban(), to.getIban(), BigDecimal.valueOf(300)));
+
+        assertEquals(70_000L, balance.balance());
+        assertEquals(50_000L, to.getBalance());
+    }
+
+    @Test
+    void transfer_shouldThrowException_whenInsufficientBalance() {
+        var from = new Account(1L, "NL91RABO0417164300", 10_000L);
+        var to = new Account(2L, "NL91RABO0417164301", 20_000L);
+
+        when(accountRepository.lockAllByIbanIn(anyCollection())).thenReturn(List.of(from, to));
+
+        assertThrows(TransactionNotAllowedException.class,
+                () -> accountService.transfer(new TransferDTO(from.getIban(), to.getIban(), BigDecimal.valueOf(300))));
+        assertEquals(10_000L, from.getBalance());
+        assertEquals(20_000L, to.getBalance());
+    }
+
+    @Test
+    void transfer_shouldThrowException_whenSameAccount() {
+        var iban = "NL91RABO0417164300";
+
+        assertThrows(TransactionNotAllowedException.class,
+                () -> accountService.transfer(new TransferDTO(iban, iban, BigDecimal.ONE)));
+    }
+
+    private AccountService accountService(int retryAttempts) {
+        var ledger = new JpaLedger(accountRepository, journalEntryRepository, outboxEventRepository);
+        return new AccountService(accountRepository, outboxEventRepository, customerService, ibanAllocator,
+                new ShardRouter(List.of(), 256), List.of(ledger), WriteStrategy.OPTIMISTIC, Duration.ZERO, 500,
+                new RetryPolicy(retryAttempts, Duration.ZERO, meterRegistry), null, transactionManager,
+                new ConcurrentMapCacheManager(CacheConfig.BALANCES), meterRegistry);
+    }
+
+    private double rejections(String reason) {
+        return meterRegistry.counter("bank.account.rejections", "reason", reason).count();
     }
 }
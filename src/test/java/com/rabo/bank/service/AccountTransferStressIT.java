@@ -0,0 +1,101 @@
+package com.rabo.bank.service;
+
+import com.rabo.bank.dto.CustomerDTO;
+import com.rabo.bank.dto.TransactionDTO;
+import com.rabo.bank.dto.TransferDTO;
+import com.rabo.bank.money.Money;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class AccountTransferStressIT {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountTransferStressIT.class);
+
+    private static final int HOT_ACCOUNTS = 4;
+    private static final int THREADS = 16;
+    private static final int TRANSFERS_PER_THREAD = 500;
+    private static final BigDecimal OPENING_BALANCE = BigDecimal.valueOf(100_000);
+
+    @Autowired
+    private AccountService accountService;
+
+    @Test
+    void concurrentTransfersBetweenHotAccounts_shouldNotDeadlockOrLoseMoney() throws Exception {
+        var ibans = openHotAccounts();
+
+        var singleThreaded = run(ibans, 1);
+        var concurrent = run(ibans, THREADS);
+
+        log.info("Transfers between {} hot accounts: {} ops/s with 1 thread, {} ops/s with {} threads",
+                HOT_ACCOUNTS, Math.round(singleThreaded), Math.round(concurrent), THREADS);
+
+        var total = ibans.stream()
+                .mapToLong(iban -> accountService.getBalance(iban).balance())
+                .sum();
+
+        assertEquals(Money.toCents(OPENING_BALANCE) * HOT_ACCOUNTS, total);
+        assertTrue(concurrent >= singleThreaded / 2,
+                "Throughput collapsed under contention: " + concurrent + " vs " + singleThreaded + " ops/s");
+    }
+
+    private List<String> openHotAccounts() {
+        List<String> ibans = new ArrayList<>();
+        for (int i = 0; i < HOT_ACCOUNTS; i++) {
+            var account = accountService.openAccount(
+                    new CustomerDTO("Hot " + i, "1 Hot St", UUID.randomUUID() + "@example.com"));
+            accountService.deposit(account.iban(), new TransactionDTO(OPENING_BALANCE));
+            ibans.add(account.iban());
+        }
+        return ibans;
+    }
+
+    private double run(List<String> ibans, int threads) throws Exception {
+        var executor = Executors.newFixedThreadPool(threads);
+        var start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                var random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    int from = random.nextInt(ibans.size());
+                    int to = (from + 1 + random.nextInt(ibans.size() - 1)) % ibans.size();
+                    accountService.transfer(new TransferDTO(ibans.get(from), ibans.get(to), BigDecimal.ONE));
+                }
+                return null;
+            }));
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        try {
+            // A deadlock surfaces either as a lock timeout from the database or as this wait timing out.
+            for (var future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - began;
+
+        return threads * TRANSFERS_PER_THREAD / (elapsed / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,72 @@
+package com.rabo.bank.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.rabo.bank.configuration.CacheConfig;
+import com.rabo.bank.dto.BatchTransactionDTO;
+import com.rabo.bank.dto.CustomerDTO;
+import com.rabo.bank.dto.TransactionDTO;
+import com.rabo.bank.dto.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+class BalanceCacheIT {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void getBalance_shouldBeServedFromCacheUntilAWriteEvictsIt() {
+        var iban = accountService.openAccount(
+                new CustomerDTO("Cache", "1 Cache St", UUID.randomUUID() + "@example.com")).iban();
+        var before = balances().stats();
+
+        accountService.getBalance(iban);
+        accountService.getBalance(iban);
+
+        var stats = balances().stats().minus(before);
+        assertEquals(1, stats.missCount());
+        assertEquals(1, stats.hitCount());
+
+        accountService.deposit(iban, new TransactionDTO(BigDecimal.TEN));
+
+        assertEquals(1_000L, accountService.getBalance(iban).balance());
+    }
+
+    @Test
+    void applyBatch_shouldOnlyEvictTheAccountsInTheBatch() {
+        var iban = accountService.openAccount(
+                new CustomerDTO("Cache", "1 Cache St", UUID.randomUUID() + "@example.com")).iban();
+        var other = accountService.openAccount(
+                new CustomerDTO("Cache", "2 Cache St", UUID.randomUUID() + "@example.com")).iban();
+        accountService.getBalance(iban);
+        accountService.getBalance(other);
+
+        accountService.applyBatch(List.of(new BatchTransactionDTO(iban, TransactionType.DEPOSIT, BigDecimal.TEN)));
+
+        assertNull(balances().getIfPresent(iban));
+        assertNotNull(balances().getIfPresent(other));
+        assertEquals(1_000L, accountService.getBalance(iban).balance());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<Object, Object> balances() {
+        var cache = (TransactionAwareCacheDecorator) cacheManager.getCache(CacheConfig.BALANCES);
+        return ((CaffeineCache) cache.getTargetCache()).getNativeCache();
+    }
+}
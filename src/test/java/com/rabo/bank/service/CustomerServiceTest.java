@@ -1,15 +1,24 @@
 package com.rabo.bank.service;
 
+import com.rabo.bank.dto.AccountBalanceDTO;
 import com.rabo.bank.dto.CustomerDTO;
 import com.rabo.bank.entities.Customer;
+import com.rabo.bank.repository.CustomerAccountRow;
 import com.rabo.bank.repository.CustomerRepository;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.math.BigDecimal;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -20,6 +29,9 @@ class CustomerServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter(List.of(), 256);
+
     @InjectMocks
     private CustomerService customerService;
 
@@ -38,4 +50,38 @@ class CustomerServiceTest {
 
         verify(customerRepository).save(any(Customer.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getCustomerAccounts_shouldAddUnfoldedJournalToBalances() {
+        when(customerRepository.findWithAccountsById(1L)).thenReturn(List.of(
+                new CustomerAccountRow(1L, "John", "john.doe@example.com", "123 Main St",
+                        10L, "NL49RABO0417164300", 100_000L, new BigDecimal("-25.50")),
+                new CustomerAccountRow(1L, "John", "john.doe@example.com", "123 Main St",
+                        11L, "NL49RABO0417164301", 200_000L, null)));
+
+        var customer = customerService.getCustomerAccounts(1L);
+
+        assertEquals("john.doe@example.com", customer.email());
+        assertEquals(List.of(
+                new AccountBalanceDTO(10L, "NL49RABO0417164300", new BigDecimal("974.50")),
+                new AccountBalanceDTO(11L, "NL49RABO0417164301", new BigDecimal("2000.00"))), customer.accounts());
+    }
+
+    @Test
+    void getCustomerAccountsByEmail_shouldReturnCustomerWithoutAccounts() {
+        when(customerRepository.findWithAccountsByEmail("jane@example.com")).thenReturn(List.of(
+                new CustomerAccountRow(2L, "Jane", "jane@example.com", "1 Side St", null, null, null, null)));
+
+        var customer = customerService.getCustomerAccountsByEmail("jane@example.com");
+
+        assertEquals(2L, customer.id());
+        assertTrue(customer.accounts().isEmpty());
+    }
+
+    @Test
+    void getCustomerAccounts_shouldThrowWhenCustomerDoesNotExist() {
+        when(customerRepository.findWithAccountsById(99L)).thenReturn(List.of());
+
+        assertThrows(EntityNotFoundException.class, () -> customerService.getCustomerAccounts(99L));
+    }
+}
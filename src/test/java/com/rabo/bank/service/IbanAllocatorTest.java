@@ -0,0 +1,108 @@
+package com.rabo.bank.service;
+
+import org.iban4j.Iban;
+import org.iban4j.IbanUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IbanAllocatorTest {
+
+    private static final int BLOCK_SIZE = 10;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicLong nextNumber = new AtomicLong(1);
+
+    private IbanAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        allocator = new IbanAllocator(jdbcTemplate, transactionManager, "NL", "RABO", BLOCK_SIZE);
+    }
+
+    @Test
+    void nextIban_shouldReturnSequentialIbansWithValidCheckDigits() {
+        stubReservations();
+
+        var first = allocator.nextIban();
+        var second = allocator.nextIban();
+
+        IbanUtil.validate(first);
+        IbanUtil.validate(second);
+        assertEquals("RABO", Iban.valueOf(first).getBankCode());
+        assertEquals("0000000001", Iban.valueOf(first).getAccountNumber());
+        assertEquals("0000000002", Iban.valueOf(second).getAccountNumber());
+    }
+
+    @Test
+    void nextIban_shouldReserveOneBlockPerBlockSizeAllocations() {
+        stubReservations();
+
+        for (int i = 0; i < BLOCK_SIZE * 3; i++) {
+            allocator.nextIban();
+        }
+
+        verify(jdbcTemplate, times(3)).update(startsWith("UPDATE iban_block"), eq(BLOCK_SIZE), eq("NL"), eq("RABO"));
+    }
+
+    @Test
+    void nextIban_shouldNeverHandOutTheSameIbanTwiceUnderConcurrency() throws Exception {
+        stubReservations();
+        Set<String> ibans = ConcurrentHashMap.newKeySet();
+
+        var executor = Executors.newFixedThreadPool(8);
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            tasks.add(() -> ibans.add(allocator.nextIban()));
+        }
+        for (var future : executor.invokeAll(tasks)) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(5_000, ibans.size());
+    }
+
+    @Test
+    void constructor_shouldRejectUnknownCountry() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new IbanAllocator(jdbcTemplate, transactionManager, "XX", "RABO", BLOCK_SIZE));
+    }
+
+    private void stubReservations() {
+        when(jdbcTemplate.update(startsWith("UPDATE iban_block"), eq(BLOCK_SIZE), anyString(), anyString()))
+                .thenAnswer(invocation -> {
+                    nextNumber.addAndGet(BLOCK_SIZE);
+                    return 1;
+                });
+        when(jdbcTemplate.queryForObject(startsWith("SELECT next_number"), eq(Long.class), anyString(), anyString()))
+                .thenAnswer(invocation -> nextNumber.get());
+    }
+}
@@ -0,0 +1,197 @@
+package com.rabo.bank.service;
+
+import com.rabo.bank.dto.BalanceDTO;
+import com.rabo.bank.exception.IdempotencyConflictException;
+import com.rabo.bank.exception.TransactionNotAllowedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final Principal CLIENT = () -> "admin";
+    private static final String FINGERPRINT = IdempotencyService.fingerprint("deposit", "NL91RABO0417164300", BigDecimal.TEN);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(jdbcTemplate, Duration.ofHours(1), Duration.ofMinutes(1), 1000);
+    }
+
+    @Test
+    void execute_shouldRunOperation_whenNoKeyIsGiven() {
+        idempotencyService.execute(CLIENT, null, FINGERPRINT, deposit());
+        idempotencyService.execute(CLIENT, null, FINGERPRINT, deposit());
+
+        assertEquals(2, invocations.get());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void execute_shouldAnswerRetryFromMemoryWithoutRunningOperationAgain() {
+        var first = idempotencyService.execute(CLIENT, "key-1", FINGERPRINT, deposit());
+        var retry = idempotencyService.execute(CLIENT, "key-1", FINGERPRINT, deposit());
+
+        assertEquals(1, invocations.get());
+        assertEquals(first, retry);
+        verify(jdbcTemplate, times(1)).update(startsWith("INSERT"), eq("admin:key-1"), eq(FINGERPRINT), any(), any(),
+                any());
+        verify(jdbcTemplate, times(1)).update(startsWith("UPDATE"), eq(new BigDecimal("1010.00")), eq("admin:key-1"),
+                any());
+    }
+
+    @Test
+    void execute_shouldReplayResultStoredByAnotherNode() {
+        doThrow(new DuplicateKeyException("duplicate"))
+                .when(jdbcTemplate).update(startsWith("INSERT"), eq("admin:key-1"), eq(FINGERPRINT), any(), any(),
+                        any());
+        when(jdbcTemplate.queryForList(startsWith("SELECT"), eq("admin:key-1")))
+                .thenReturn(List.of(Map.of("fingerprint", FINGERPRINT, "balance", new BigDecimal("1010.00"))));
+
+        var result = idempotencyService.execute(CLIENT, "key-1", FINGERPRINT, deposit());
+
+        assertEquals(101_000L, result.balance());
+        assertEquals(0, invocations.get());
+    }
+
+    @Test
+    void execute_shouldRejectRequest_whenKeyIsStillInProgress() {
+        doThrow(new DuplicateKeyException("duplicate"))
+                .when(jdbcTemplate).update(startsWith("INSERT"), eq("admin:key-1"), eq(FINGERPRINT), any(), any(),
+                        any());
+        when(jdbcTemplate.queryForList(startsWith("SELECT"), eq("admin:key-1")))
+                .thenReturn(List.of(Map.of("fingerprint", FINGERPRINT)));
+
+        assertThrows(IdempotencyConflictException.class,
+                () -> idempotencyService.execute(CLIENT, "key-1", FINGERPRINT, deposit()));
+        assertEquals(0, invocations.get());
+    }
+
+    @Test
+    void execute_shouldTakeOverClaim_whenLeaseExpired() {
+        doThrow(new DuplicateKeyException("duplicate"))
+                .when(jdbcTemplate).update(startsWith("INSERT"), eq("admin:key-1"), eq(FINGERPRINT), any(), any(),
+                        any());
+        when(jdbcTemplate.queryForList(startsWith("SELECT"), eq("admin:key-1")))
+                .thenReturn(List.of(Map.of("fingerprint", FINGERPRINT)));
+        when(jdbcTemplate.update(startsWith("UPDATE idempotency_key SET claim_token"), any(), any(), eq("admin:key-1"),
+                eq(FINGERPRINT), any())).thenReturn(1);
+
+        var result = idempotencyService.execute(CLIENT, "key-1", FINGERPRINT, deposit());
+
+        assertEquals(101_000L, result.balance());
+        assertEquals(1, invocations.get());
+        verify(jdbcTemplate).update(startsWith("UPDATE idempotency_key SET balance"), eq(new BigDecimal("1010.00")),
+                eq("admin:key-1"), any());
+    }
+
+    @Test
+    void renewLeases_shouldExtendTheLeaseOfAClaimWhoseOperationIsStillRunning() {
+        lenient().when(jdbcTemplate.update(startsWith("UPDATE idempotency_key SET leased_until"), any(),
+                eq("admin:key-1"), any())).thenReturn(1);
+
+        idempotencyService.execute(CLIENT, "key-1", FINGERPRINT, () -> {
+            idempotencyService.renewLeases();
+            idempotencyService.renewLeases();
+            return deposit().get();
+        });
+        idempotencyService.renewLeases();
+
+        verify(jdbcTemplate, times(2)).update(startsWith("UPDATE idempotency_key SET leased_until"), any(),
+                eq("admin:key-1"), any());
+    }
+
+    @Test
+    void renewLeases_shouldRetryStoringTheResult_whenItCouldNotBeStoredRightAway() {
+        lenient().when(jdbcTemplate.update(startsWith("UPDATE idempotency_key SET balance"), any(), eq("admin:key-1"),
+                any())).thenThrow(new DataAccessResourceFailureException("connection lost"))
+                .thenReturn(1);
+
+        var result = idempotencyService.execute(CLIENT, "key-1", FINGERPRINT, deposit());
+        idempotencyService.renewLeases();
+        idempotencyService.renewLeases();
+
+        assertEquals(101_000L, result.balance());
+        assertEquals(result, idempotencyService.execute(CLIENT, "key-1", FINGERPRINT, deposit()));
+        assertEquals(1, invocations.get());
+        verify(jdbcTemplate, times(2)).update(startsWith("UPDATE idempotency_key SET balance"),
+                eq(new BigDecimal("1010.00")), eq("admin:key-1"), any());
+        verify(jdbcTemplate, never()).update(startsWith("UPDATE idempotency_key SET leased_until"), any(), any(),
+                any());
+    }
+
+    @Test
+    void renewLeases_shouldDropAClaimThatWasTakenOver() {
+        idempotencyService.execute(CLIENT, "key-1", FINGERPRINT, () -> {
+            idempotencyService.renewLeases();
+            idempotencyService.renewLeases();
+            return deposit().get();
+        });
+
+        verify(jdbcTemplate, times(1)).update(startsWith("UPDATE idempotency_key SET leased_until"), any(),
+                eq("admin:key-1"), any());
+    }
+
+    @Test
+    void execute_shouldRejectKeyReusedForDifferentRequest() {
+        idempotencyService.execute(CLIENT, "key-1", FINGERPRINT, deposit());
+
+        var otherRequest = IdempotencyService.fingerprint("withdraw", "NL91RABO0417164300", BigDecimal.TEN);
+        assertThrows(IdempotencyConflictException.class,
+                () -> idempotencyService.execute(CLIENT, "key-1", otherRequest, deposit()));
+    }
+
+    @Test
+    void execute_shouldReleaseKey_whenOperationFails() {
+        assertThrows(TransactionNotAllowedException.class, () -> idempotencyService.execute(CLIENT, "key-1", FINGERPRINT,
+                () -> {
+                    throw new TransactionNotAllowedException("Insufficient balance");
+                }));
+
+        verify(jdbcTemplate).update(startsWith("DELETE"), eq("admin:key-1"), any());
+        idempotencyService.execute(CLIENT, "key-1", FINGERPRINT, deposit());
+        assertEquals(1, invocations.get());
+    }
+
+    @Test
+    void fingerprint_shouldCompareAmountsByValue() {
+        assertEquals(IdempotencyService.fingerprint("deposit", "NL91RABO0417164300", new BigDecimal("10.00")), FINGERPRINT);
+    }
+
+    private Supplier<BalanceDTO> deposit() {
+        return () -> new BalanceDTO(100_000L + 1_000L * invocations.incrementAndGet());
+    }
+}
@@ -0,0 +1,103 @@
+package com.rabo.bank.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardRouterTest {
+
+    private static final int KEYS = 20_000;
+
+    @Test
+    void shardOf_shouldUseSingleShard_whenShardingIsNotConfigured() {
+        var router = new ShardRouter(List.of(), 256);
+
+        assertEquals(1, router.shardCount());
+        assertEquals(0, router.shardOf("NL49RABO0417164300"));
+        assertEquals(42, router.onShard(3, () -> 42));
+        assertNull(router.currentShard());
+    }
+
+    @Test
+    void shardOf_shouldSpreadSequentialIbansEvenly() {
+        var router = router(4);
+        var counts = new int[4];
+
+        for (int i = 0; i < KEYS; i++) {
+            counts[router.shardOf(iban(i))]++;
+        }
+
+        for (var count : counts) {
+            assertTrue(count > KEYS / 4 * 0.8 && count < KEYS / 4 * 1.2, "Uneven spread: " + count);
+        }
+    }
+
+    @Test
+    void shardOf_shouldOnlyMoveKeysToAnAddedShard() {
+        var before = router(4);
+        var after = router(5);
+        int moved = 0;
+
+        for (int i = 0; i < KEYS; i++) {
+            var shard = after.shardOf(iban(i));
+            if (shard != before.shardOf(iban(i))) {
+                assertEquals(4, shard);
+                moved++;
+            }
+        }
+
+        assertTrue(moved > KEYS / 5 * 0.8 && moved < KEYS / 5 * 1.2, "Moved: " + moved);
+    }
+
+    @Test
+    void onShard_shouldSelectShardForTheCallAndRestoreThePreviousOne() {
+        var router = router(3);
+
+        router.runOnShard(2, () -> {
+            assertEquals(2, router.currentShard());
+            router.runOnShard(1, () -> assertEquals(1, router.currentShard()));
+            assertEquals(2, router.currentShard());
+        });
+
+        assertNull(router.currentShard());
+    }
+
+    @Test
+    void onShard_shouldRejectSwitchingShardsInsideATransaction() {
+        var router = router(3);
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertEquals(1, router.onShard(0, () -> 1));
+            assertThrows(IllegalStateException.class, () -> router.onShard(1, () -> 1));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+    }
+
+    @Test
+    void firstOnShard_shouldDrawUntilAKeyFallsOnTheShard() {
+        var router = router(3);
+        var next = new AtomicInteger();
+
+        var iban = router.firstOnShard(2, () -> iban(next.getAndIncrement()));
+
+        assertEquals(2, router.shardOf(iban));
+    }
+
+    private static ShardRouter router(int shards) {
+        return new ShardRouter(Collections.nCopies(shards, "jdbc:h2:mem:shard"), 256);
+    }
+
+    private static String iban(int number) {
+        return "NL00RABO%010d".formatted(number);
+    }
+}
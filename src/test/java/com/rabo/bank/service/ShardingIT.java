@@ -0,0 +1,224 @@
+package com.rabo.bank.service;
+
+import com.rabo.bank.configuration.ShardRoutingDataSource;
+import com.rabo.bank.dto.BatchTransactionDTO;
+import com.rabo.bank.dto.CustomerDTO;
+import com.rabo.bank.dto.TransactionDTO;
+import com.rabo.bank.dto.TransactionType;
+import com.rabo.bank.dto.TransferDTO;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the services against the three in-memory H2 shards of the {@code sharded} profile and checks where rows end
+ * up by querying each shard directly.
+ */
+@SpringBootTest
+@ActiveProfiles("sharded")
+class ShardingIT {
+
+    private static final String PENDING_TRANSFER = "INSERT INTO pending_transfer "
+            + "(id, from_iban, to_iban, amount, created_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String TRANSFER_OUTCOME = "INSERT INTO transfer_outcome (id, outcome, created_at) "
+            + "VALUES (?, ?, ?)";
+    private static final String ACCOUNT_WITH_CUSTOMER = "SELECT COUNT(*) FROM account a "
+            + "JOIN customer c ON c.id = a.customer_id WHERE a.iban = ? AND c.email = ?";
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardRoutingDataSource dataSource;
+
+    @Autowired
+    private TransferRecovery transferRecovery;
+
+    @Test
+    void migrations_shouldBeAppliedToEveryShard() {
+        var shards = shards();
+        var expected = versions(shards.get(0));
+
+        assertEquals(3, shards.size());
+        assertTrue(expected.size() > 1);
+        for (var shard : shards) {
+            assertEquals(expected, versions(shard));
+        }
+    }
+
+    @Test
+    void openAccount_shouldPlaceCustomerAndAccountTogetherOnOneShard() {
+        var shards = shards();
+        var used = new boolean[shards.size()];
+
+        for (int i = 0; i < 30; i++) {
+            var email = UUID.randomUUID() + "@example.com";
+            var iban = accountService.openAccount(new CustomerDTO("Shard", "1 Shard St", email)).iban();
+            var shard = shardRouter.shardOf(email);
+
+            assertEquals(shard, shardRouter.shardOf(iban));
+            for (int candidate = 0; candidate < shards.size(); candidate++) {
+                var expected = candidate == shard ? 1 : 0;
+                assertEquals(expected, shards.get(candidate).queryForObject(ACCOUNT_WITH_CUSTOMER, Integer.class, iban, email));
+            }
+            used[shard] = true;
+        }
+
+        for (var shard : used) {
+            assertTrue(shard);
+        }
+    }
+
+    @Test
+    void transfer_shouldMoveMoneyBetweenAccountsOnDifferentShards() {
+        var ibans = openOnDistinctShards(2);
+        var from = ibans.get(0);
+        var to = ibans.get(1);
+        accountService.deposit(from, new TransactionDTO(new BigDecimal("100.00")));
+
+        var balance = accountService.transfer(new TransferDTO(from, to, new BigDecimal("40.00")));
+
+        assertEquals(6_000L, balance.balance());
+        assertEquals(6_000L, accountService.getBalance(from).balance());
+        assertEquals(4_000L, accountService.getBalance(to).balance());
+    }
+
+    @Test
+    void transfer_shouldLeaveSourceUntouched_whenTargetOnOtherShardDoesNotExist() {
+        var from = openOnDistinctShards(1).get(0);
+        accountService.deposit(from, new TransactionDTO(new BigDecimal("100.00")));
+        var missing = shardRouter.firstOnShard((shardRouter.shardOf(from) + 1) % shardRouter.shardCount(),
+                () -> "NL00MISS" + UUID.randomUUID());
+
+        assertThrows(EntityNotFoundException.class,
+                () -> accountService.transfer(new TransferDTO(from, missing, new BigDecimal("40.00"))));
+        assertEquals(10_000L, accountService.getBalance(from).balance());
+    }
+
+    @Test
+    void settle_shouldPayBackPendingTransfer_whenItWasNotDeposited() {
+        var ibans = openOnDistinctShards(2);
+        var from = ibans.get(0);
+        var to = ibans.get(1);
+        accountService.deposit(from, new TransactionDTO(new BigDecimal("100.00")));
+        accountService.withdraw(from, new TransactionDTO(new BigDecimal("40.00")));
+        var id = recordPendingTransfer(from, to, new BigDecimal("40.00"));
+
+        transferRecovery.settle();
+
+        assertEquals(10_000L, accountService.getBalance(from).balance());
+        assertEquals(0L, accountService.getBalance(to).balance());
+        assertEquals("CANCELLED", shardOf(to).queryForObject(
+                "SELECT outcome FROM transfer_outcome WHERE id = ?", String.class, id));
+        assertEquals(0, countPendingTransfers(from, id));
+    }
+
+    @Test
+    void settle_shouldCompletePendingTransfer_whenItWasDeposited() {
+        var ibans = openOnDistinctShards(2);
+        var from = ibans.get(0);
+        var to = ibans.get(1);
+        accountService.deposit(from, new TransactionDTO(new BigDecimal("100.00")));
+        accountService.withdraw(from, new TransactionDTO(new BigDecimal("40.00")));
+        accountService.deposit(to, new TransactionDTO(new BigDecimal("40.00")));
+        var id = recordPendingTransfer(from, to, new BigDecimal("40.00"));
+        shardOf(to).update(TRANSFER_OUTCOME, id, "DEPOSITED", OffsetDateTime.now(ZoneOffset.UTC));
+
+        transferRecovery.settle();
+
+        assertEquals(6_000L, accountService.getBalance(from).balance());
+        assertEquals(4_000L, accountService.getBalance(to).balance());
+        assertEquals(0, countPendingTransfers(from, id));
+    }
+
+    @Test
+    void applyBatch_shouldApplyEntriesOnEveryShardAndKeepTheirIndexes() {
+        var ibans = openOnDistinctShards(3);
+        var transactions = new ArrayList<BatchTransactionDTO>();
+        for (var iban : ibans) {
+            transactions.add(new BatchTransactionDTO(iban, TransactionType.DEPOSIT, new BigDecimal("10.00")));
+            transactions.add(new BatchTransactionDTO(iban, TransactionType.WITHDRAW, new BigDecimal("25.00")));
+        }
+
+        var results = accountService.applyBatch(transactions);
+
+        for (int i = 0; i < transactions.size(); i++) {
+            assertEquals(i, results.get(i).index());
+            assertEquals(transactions.get(i).iban(), results.get(i).iban());
+            assertEquals(i % 2 == 0, results.get(i).success());
+        }
+        for (var iban : ibans) {
+            assertEquals(1_000L, accountService.getBalance(iban).balance());
+        }
+    }
+
+    @Test
+    void getCustomerAccounts_shouldFindCustomersOnAnyShard() {
+        var email = UUID.randomUUID() + "@example.com";
+        var iban = accountService.openAccount(new CustomerDTO("Lookup", "1 Lookup St", email)).iban();
+
+        var byEmail = customerService.getCustomerAccountsByEmail(email);
+        var byId = customerService.getCustomerAccounts(byEmail.id());
+
+        assertEquals(iban, byEmail.accounts().get(0).iban());
+        assertEquals(email, byId.email());
+        assertEquals(byEmail.id(), byId.id());
+    }
+
+    private List<String> openOnDistinctShards(int count) {
+        var ibans = new ArrayList<String>();
+        var taken = new boolean[shardRouter.shardCount()];
+        while (ibans.size() < count) {
+            var email = UUID.randomUUID() + "@example.com";
+            var shard = shardRouter.shardOf(email);
+            if (!taken[shard]) {
+                taken[shard] = true;
+                ibans.add(accountService.openAccount(new CustomerDTO("Shard", "1 Shard St", email)).iban());
+            }
+        }
+        return ibans;
+    }
+
+    private String recordPendingTransfer(String from, String to, BigDecimal amount) {
+        var id = UUID.randomUUID().toString();
+        shardOf(from).update(PENDING_TRANSFER, id, from, to, amount, OffsetDateTime.now(ZoneOffset.UTC).minusHours(1));
+        return id;
+    }
+
+    private int countPendingTransfers(String iban, String id) {
+        return shardOf(iban).queryForObject("SELECT COUNT(*) FROM pending_transfer WHERE id = ?", Integer.class, id);
+    }
+
+    private JdbcTemplate shardOf(String iban) {
+        return shards().get(shardRouter.shardOf(iban));
+    }
+
+    private List<JdbcTemplate> shards() {
+        return dataSource.getShards().stream().map(JdbcTemplate::new).toList();
+    }
+
+    private static List<String> versions(JdbcTemplate shard) {
+        return shard.queryForList(
+                "SELECT version FROM flyway_schema_history WHERE success = TRUE ORDER BY installed_rank", String.class);
+    }
+}
@@ -0,0 +1,111 @@
+package com.rabo.bank.service;
+
+import com.rabo.bank.dto.StatementEntryDTO;
+import com.rabo.bank.repository.AccountRepository;
+import com.rabo.bank.repository.JournalEntryRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StatementServiceTest {
+
+    private static final String IBAN = "NL91RABO0417164300";
+    private static final Instant BOOKED_AT = Instant.parse("2024-06-01T10:15:30Z");
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private JournalEntryRepository journalEntryRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private StatementService statementService;
+
+    @BeforeEach
+    void setUp() {
+        statementService = new StatementService(accountRepository, journalEntryRepository,
+                Jackson2ObjectMapperBuilder.json().build(), new ShardRouter(List.of(), 256), transactionManager);
+    }
+
+    @Test
+    void getStatement_shouldReturnCursorOfLastEntry_whenPageIsFull() {
+        when(accountRepository.existsByIban(IBAN)).thenReturn(true);
+        when(journalEntryRepository.findStatementPage(IBAN, 10L, Pageable.ofSize(2)))
+                .thenReturn(List.of(entry(11L, "500.00"), entry(12L, "-20.00")));
+
+        var page = statementService.getStatement(IBAN, 10L, 2);
+
+        assertEquals(2, page.entries().size());
+        assertEquals(12L, page.nextCursor());
+    }
+
+    @Test
+    void getStatement_shouldReturnNoCursor_whenPageIsLast() {
+        when(accountRepository.existsByIban(IBAN)).thenReturn(true);
+        when(journalEntryRepository.findStatementPage(IBAN, 0L, Pageable.ofSize(StatementService.MAX_PAGE_SIZE)))
+                .thenReturn(List.of(entry(1L, "500.00")));
+
+        var page = statementService.getStatement(IBAN, 0L, 50_000);
+
+        assertNull(page.nextCursor());
+        verify(journalEntryRepository).findStatementPage(IBAN, 0L, Pageable.ofSize(StatementService.MAX_PAGE_SIZE));
+    }
+
+    @Test
+    void getStatement_shouldThrowException_whenAccountNotFound() {
+        when(accountRepository.existsByIban(IBAN)).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class, () -> statementService.getStatement(IBAN, 0L, 10));
+    }
+
+    @Test
+    void writeStatement_shouldWriteOneCsvLinePerEntry() throws Exception {
+        when(journalEntryRepository.streamStatement(IBAN)).thenReturn(Stream.of(entry(1L, "500.00"), entry(2L, "-20.00")));
+        var out = new ByteArrayOutputStream();
+
+        statementService.writeStatement(IBAN, StatementFormat.CSV, out);
+
+        assertEquals("""
+                id,amount,createdAt
+                1,500.00,2024-06-01T10:15:30Z
+                2,-20.00,2024-06-01T10:15:30Z
+                """, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writeStatement_shouldWriteOneJsonDocumentPerLine() throws Exception {
+        when(journalEntryRepository.streamStatement(IBAN)).thenReturn(Stream.of(entry(1L, "500.00")));
+        var out = new ByteArrayOutputStream();
+
+        statementService.writeStatement(IBAN, StatementFormat.NDJSON, out);
+
+        assertEquals("{\"id\":1,\"amount\":\"500.00\",\"createdAt\":\"2024-06-01T10:15:30Z\"}\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    private static StatementEntryDTO entry(long id, String amount) {
+        return new StatementEntryDTO(id, new BigDecimal(amount), BOOKED_AT);
+    }
+}
@@ -0,0 +1,119 @@
+package com.rabo.bank.service.admission;
+
+import com.rabo.bank.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControlTest {
+
+    private static final String IBAN = "NL91RABO0417164300";
+    private static final String OTHER_IBAN = "NL02RABO0123456789";
+    private static final Principal CLIENT = () -> "client";
+    private static final double ONE_PER_HOUR = 1.0 / 3600;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void admit_shouldRejectClient_whenItExceedsItsBurst() {
+        var admissionControl = admissionControl(true, 2, 1_000, 32);
+
+        assertEquals(1, admissionControl.admit(CLIENT, List.of(IBAN), () -> 1));
+        assertEquals(2, admissionControl.admit(CLIENT, List.of(OTHER_IBAN), () -> 2));
+        var ex = assertThrows(RateLimitExceededException.class,
+                () -> admissionControl.admit(CLIENT, List.of(IBAN), () -> 3));
+
+        assertTrue(ex.getRetryAfter().compareTo(Duration.ofMinutes(59)) > 0);
+        assertEquals(1, rejections("client"));
+        assertEquals(4, admissionControl.admit(() -> "other-client", List.of(IBAN), () -> 4));
+    }
+
+    @Test
+    void admit_shouldRejectAccount_whenItExceedsItsBurstWithoutAffectingOtherAccounts() {
+        var admissionControl = admissionControl(true, 1_000, 1, 32);
+
+        admissionControl.admit(CLIENT, List.of(IBAN), () -> null);
+
+        assertThrows(RateLimitExceededException.class,
+                () -> admissionControl.admit(() -> "other-client", List.of(OTHER_IBAN, IBAN), () -> null));
+        assertThrows(RateLimitExceededException.class,
+                () -> admissionControl.admit(CLIENT, List.of(IBAN), () -> null));
+        assertEquals(2, rejections("iban"));
+    }
+
+    @Test
+    void admit_shouldGiveTokensBack_whenALaterLimitRejectsTheRequest() {
+        var admissionControl = admissionControl(true, 2, 1, 32);
+        admissionControl.admit(() -> "other-client", List.of(IBAN), () -> null);
+
+        assertThrows(RateLimitExceededException.class,
+                () -> admissionControl.admit(CLIENT, 2, List.of(OTHER_IBAN, IBAN), () -> null));
+
+        assertEquals(1, rejections("iban"));
+        assertEquals(1, admissionControl.admit(CLIENT, List.of(OTHER_IBAN), () -> 1));
+    }
+
+    @Test
+    void admit_shouldChargeABatchForEachMovement() {
+        var admissionControl = admissionControl(true, 3, 1_000, 32);
+
+        assertEquals(1, admissionControl.admit(CLIENT, 2, List.of(IBAN, OTHER_IBAN), () -> 1));
+        assertThrows(RateLimitExceededException.class,
+                () -> admissionControl.admit(CLIENT, 2, List.of(IBAN, OTHER_IBAN), () -> null));
+        assertEquals(2, admissionControl.admit(CLIENT, List.of(IBAN), () -> 2));
+        assertEquals(1, rejections("client"));
+    }
+
+    @Test
+    void admit_shouldNotLimitAccounts_whenTheirRateIsZero() {
+        var admissionControl = new AdmissionControl(true, ONE_PER_HOUR, 1_000, 0, 1, 1_000, 32, meterRegistry);
+
+        for (int i = 0; i < 10; i++) {
+            var attempt = i;
+            assertEquals(attempt, admissionControl.admit(CLIENT, List.of(IBAN), () -> attempt));
+        }
+    }
+
+    @Test
+    void admit_shouldRejectWrites_whenTheConcurrencyLimitIsReached() {
+        var admissionControl = admissionControl(true, 1_000, 1_000, 1);
+
+        admissionControl.admit(CLIENT, List.of(IBAN), () -> assertThrows(RateLimitExceededException.class,
+                () -> admissionControl.admit(CLIENT, List.of(OTHER_IBAN), () -> null)));
+
+        assertEquals(1, rejections("concurrency"));
+        assertEquals(1, admissionControl.admit(CLIENT, List.of(IBAN), () -> 1));
+    }
+
+    @Test
+    void admit_shouldRunEveryMutation_whenDisabled() {
+        var admissionControl = admissionControl(false, 1, 1, 1);
+
+        for (int i = 0; i < 10; i++) {
+            var attempt = i;
+            assertEquals(attempt, admissionControl.admit(CLIENT, List.of(IBAN), () -> attempt));
+        }
+    }
+
+    private AdmissionControl admissionControl(boolean enabled, int clientBurst, int ibanBurst, int maxConcurrentWrites) {
+        return new AdmissionControl(enabled, ONE_PER_HOUR, clientBurst, ONE_PER_HOUR, ibanBurst, 1_000,
+                maxConcurrentWrites, meterRegistry);
+    }
+
+    private double rejections(String reason) {
+        return meterRegistry.counter("bank.admission.rejections", "reason", reason).count();
+    }
+}
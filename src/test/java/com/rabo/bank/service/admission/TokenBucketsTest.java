@@ -0,0 +1,81 @@
+package com.rabo.bank.service.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketsTest {
+
+    private static final long TOKEN_NANOS = Duration.ofMillis(100).toNanos();
+
+    private final AtomicLong clock = new AtomicLong(Duration.ofHours(1).toNanos());
+
+    @Test
+    void tryTake_shouldAllowTheBurstAndThenOneTokenPerRefillInterval() {
+        var buckets = new TokenBuckets(10, 2, 1_000, clock::get);
+
+        assertEquals(0, buckets.tryTake("client"));
+        assertEquals(0, buckets.tryTake("client"));
+        assertEquals(TOKEN_NANOS, buckets.tryTake("client"));
+
+        clock.addAndGet(TOKEN_NANOS);
+        assertEquals(0, buckets.tryTake("client"));
+        assertEquals(TOKEN_NANOS, buckets.tryTake("client"));
+    }
+
+    @Test
+    void tryTake_shouldNotSaveUpMoreThanTheBurst() {
+        var buckets = new TokenBuckets(10, 2, 1_000, clock::get);
+        buckets.tryTake("client");
+
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        assertEquals(0, buckets.tryTake("client"));
+        assertEquals(0, buckets.tryTake("client"));
+        assertTrue(buckets.tryTake("client") > 0);
+    }
+
+    @Test
+    void tryTake_shouldTakeAllTokensOrNone() {
+        var buckets = new TokenBuckets(10, 3, 1_000, clock::get);
+
+        assertEquals(0, buckets.tryTake("client", 2));
+        assertEquals(TOKEN_NANOS, buckets.tryTake("client", 2));
+        assertEquals(0, buckets.tryTake("client"));
+    }
+
+    @Test
+    void giveBack_shouldReturnTokensToTheBucket() {
+        var buckets = new TokenBuckets(10, 2, 1_000, clock::get);
+        buckets.tryTake("client", 2);
+
+        buckets.giveBack("client", 1);
+
+        assertEquals(0, buckets.tryTake("client"));
+        assertTrue(buckets.tryTake("client") > 0);
+    }
+
+    @Test
+    void tryTake_shouldKeepBucketsOfDifferentKeysApart() {
+        var buckets = new TokenBuckets(10, 1, 1_000, clock::get);
+
+        assertEquals(0, buckets.tryTake("NL91RABO0417164300"));
+        assertTrue(buckets.tryTake("NL91RABO0417164300") > 0);
+        assertEquals(0, buckets.tryTake("NL02RABO0123456789"));
+    }
+
+    @Test
+    void size_shouldStayBounded_whenManyKeysAreSeen() {
+        var buckets = new TokenBuckets(10, 2, 100, clock::get);
+
+        for (int i = 0; i < 10_000; i++) {
+            buckets.tryTake("NL00RABO%010d".formatted(i));
+        }
+
+        assertTrue(buckets.size() <= 100, "Buckets kept: " + buckets.size());
+    }
+}
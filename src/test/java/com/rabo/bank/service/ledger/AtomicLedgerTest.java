@@ -0,0 +1,88 @@
+package com.rabo.bank.service.ledger;
+
+import com.rabo.bank.dto.BalanceEventType;
+import com.rabo.bank.exception.TransactionNotAllowedException;
+import com.rabo.bank.repository.AccountRepository;
+import com.rabo.bank.repository.JournalEntryRepository;
+import com.rabo.bank.repository.OutboxEventRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AtomicLedgerTest {
+
+    private static final String IBAN = "NL91RABO0417164300";
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private JournalEntryRepository journalEntryRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @InjectMocks
+    private AtomicLedger ledger;
+
+    @Test
+    void deposit_shouldUpdateInPlaceAndReturnNewBalance() {
+        when(accountRepository.addToBalance(IBAN, new BigDecimal("500.00"))).thenReturn(1);
+        when(accountRepository.findBalanceByIban(IBAN)).thenReturn(Optional.of(150_000L));
+
+        assertEquals(150_000L, ledger.deposit(IBAN, 50_000L));
+        verify(accountRepository, never()).findByIban(IBAN);
+        verify(outboxEventRepository).save(argThat(event -> event.getType() == BalanceEventType.DEPOSIT
+                && event.getAmount() == 50_000L && event.getBalance() == 150_000L));
+    }
+
+    @Test
+    void depositAll_shouldCreditTheSumOnceAndReturnBalanceAfterEachDeposit() {
+        when(accountRepository.addToBalance(IBAN, new BigDecimal("60.00"))).thenReturn(1);
+        when(accountRepository.findBalanceByIban(IBAN)).thenReturn(Optional.of(106_000L));
+
+        var balances = ledger.depositAll(IBAN, new long[]{1_000L, 2_000L, 3_000L});
+
+        assertArrayEquals(new long[]{101_000L, 103_000L, 106_000L}, balances);
+        verify(accountRepository, times(1)).addToBalance(IBAN, new BigDecimal("60.00"));
+    }
+
+    @Test
+    void deposit_shouldThrowException_whenAccountNotFound() {
+        when(accountRepository.addToBalance(IBAN, new BigDecimal("1.00"))).thenReturn(0);
+
+        assertThrows(EntityNotFoundException.class, () -> ledger.deposit(IBAN, 100L));
+    }
+
+    @Test
+    void withdraw_shouldThrowException_whenInsufficientBalance() {
+        when(accountRepository.subtractFromBalance(IBAN, new BigDecimal("2000.00"))).thenReturn(0);
+        when(accountRepository.findBalanceByIban(IBAN)).thenReturn(Optional.of(100_000L));
+
+        assertThrows(TransactionNotAllowedException.class, () -> ledger.withdraw(IBAN, 200_000L));
+    }
+
+    @Test
+    void withdraw_shouldThrowException_whenAccountNotFound() {
+        when(accountRepository.subtractFromBalance(IBAN, new BigDecimal("1.00"))).thenReturn(0);
+        when(accountRepository.findBalanceByIban(IBAN)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> ledger.withdraw(IBAN, 100L));
+    }
+}
@@ -0,0 +1,114 @@
+package com.rabo.bank.service.ledger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GroupCommitLedgerTest {
+
+    private static final String IBAN = "NL91RABO0417164300";
+    private static final int DEPOSITS = 64;
+
+    @Mock
+    private Ledger delegate;
+
+    @Test
+    void deposit_shouldMergeConcurrentDepositsAndAnswerEachCallerWithItsOwnBalance() throws Exception {
+        var balance = new AtomicLong();
+        var commits = new AtomicInteger();
+        when(delegate.depositAll(eq(IBAN), any(long[].class))).thenAnswer(invocation -> {
+            long[] amounts = invocation.getArgument(1);
+            synchronized (balance) {
+                commits.incrementAndGet();
+                var balances = Ledger.balancesAfterEach(balance.get(), amounts);
+                balance.set(balances[balances.length - 1]);
+                return balances;
+            }
+        });
+        var meterRegistry = new SimpleMeterRegistry();
+        var ledger = new GroupCommitLedger(delegate, Duration.ofMillis(50), 500, meterRegistry);
+
+        var results = depositConcurrently(ledger);
+
+        assertEquals(DEPOSITS * 100L, balance.get());
+        assertEquals(DEPOSITS, new HashSet<>(results).size(), "every caller sees the balance after its own deposit");
+        assertTrue(commits.get() < DEPOSITS, "expected merged commits but got " + commits.get());
+        assertEquals(commits.get(), meterRegistry.summary("bank.account.group_commit.size").count());
+        assertEquals(DEPOSITS, meterRegistry.summary("bank.account.group_commit.size").totalAmount());
+    }
+
+    @Test
+    void deposit_shouldCommitEarly_whenGroupIsFull() {
+        when(delegate.depositAll(eq(IBAN), aryEq(new long[]{100L}))).thenReturn(new long[]{1_000L});
+        var ledger = new GroupCommitLedger(delegate, Duration.ofMinutes(1), 1, new SimpleMeterRegistry());
+
+        assertEquals(1_000L, ledger.deposit(IBAN, 100L));
+    }
+
+    @Test
+    void deposit_shouldFailEveryDepositOfTheGroup_whenCommitFails() throws Exception {
+        when(delegate.depositAll(eq(IBAN), any(long[].class))).thenThrow(new EntityNotFoundException("Account not found"));
+        var ledger = new GroupCommitLedger(delegate, Duration.ofMillis(50), 500, new SimpleMeterRegistry());
+
+        var executor = Executors.newFixedThreadPool(4);
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(executor.submit(() -> ledger.deposit(IBAN, 100L)));
+        }
+        for (var future : futures) {
+            var e = assertThrows(ExecutionException.class, future::get);
+            assertInstanceOf(EntityNotFoundException.class, e.getCause());
+        }
+        executor.shutdown();
+    }
+
+    private List<Long> depositConcurrently(GroupCommitLedger ledger) throws Exception {
+        var executor = Executors.newFixedThreadPool(16);
+        var start = new CountDownLatch(1);
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (int i = 0; i < DEPOSITS; i++) {
+            tasks.add(() -> {
+                start.await();
+                return ledger.deposit(IBAN, 100L);
+            });
+        }
+
+        List<Future<Long>> futures = new ArrayList<>();
+        for (var task : tasks) {
+            futures.add(executor.submit(task));
+        }
+        start.countDown();
+
+        List<Long> results = new ArrayList<>();
+        for (var future : futures) {
+            results.add(future.get());
+        }
+        executor.shutdown();
+        return results;
+    }
+}
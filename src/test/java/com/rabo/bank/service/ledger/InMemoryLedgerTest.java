@@ -0,0 +1,142 @@
+package com.rabo.bank.service.ledger;
+
+import com.rabo.bank.entities.Account;
+import com.rabo.bank.entities.JournalEntry;
+import com.rabo.bank.entities.OutboxEvent;
+import com.rabo.bank.exception.TransactionNotAllowedException;
+import com.rabo.bank.repository.AccountRepository;
+import com.rabo.bank.repository.JournalEntryRepository;
+import com.rabo.bank.repository.OutboxEventRepository;
+import com.rabo.bank.service.ShardRouter;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryLedgerTest {
+
+    private static final String IBAN = "NL91RABO0417164300";
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private JournalEntryRepository journalEntryRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private InMemoryLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        ledger = new InMemoryLedger(accountRepository, journalEntryRepository, outboxEventRepository, jdbcTemplate,
+                transactionManager, new ShardRouter(List.of(), 256), 16);
+    }
+
+    @Test
+    void deposit_shouldLoadAccountOnceAndKeepBalanceInMemory() {
+        when(accountRepository.findByIban(IBAN)).thenReturn(Optional.of(new Account(1L, IBAN, 100_000L)));
+
+        ledger.deposit(IBAN, 50_000L);
+        var balance = ledger.deposit(IBAN, 25_000L);
+
+        assertEquals(175_000L, balance);
+        assertEquals(175_000L, ledger.balanceOf(IBAN));
+        verify(accountRepository, times(1)).findByIban(IBAN);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void withdraw_shouldThrowException_whenInsufficientBalance() {
+        when(accountRepository.findByIban(IBAN)).thenReturn(Optional.of(new Account(1L, IBAN, 100_000L)));
+
+        assertThrows(TransactionNotAllowedException.class, () -> ledger.withdraw(IBAN, 200_000L));
+        assertEquals(100_000L, ledger.balanceOf(IBAN));
+    }
+
+    @Test
+    void deposit_shouldThrowException_whenAccountNotFound() {
+        when(accountRepository.findByIban(IBAN)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> ledger.deposit(IBAN, 100L));
+    }
+
+    @Test
+    void concurrentDeposits_shouldAllBeApplied() throws Exception {
+        when(accountRepository.findByIban(IBAN)).thenReturn(Optional.of(new Account(1L, IBAN, 0L)));
+
+        var executor = Executors.newFixedThreadPool(8);
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (int i = 0; i < 8_000; i++) {
+            tasks.add(() -> ledger.deposit(IBAN, 100L));
+        }
+        for (var future : executor.invokeAll(tasks)) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(800_000L, ledger.balanceOf(IBAN));
+    }
+
+    @Test
+    void transfer_shouldMoveAmountAndRejectOverdraft() {
+        var otherIban = "NL91RABO0417164301";
+        when(accountRepository.findByIban(IBAN)).thenReturn(Optional.of(new Account(1L, IBAN, 10_000L)));
+        when(accountRepository.findByIban(otherIban)).thenReturn(Optional.of(new Account(2L, otherIban, 0L)));
+
+        assertEquals(4_000L, ledger.transfer(IBAN, otherIban, 6_000L));
+        assertThrows(TransactionNotAllowedException.class, () -> ledger.transfer(IBAN, otherIban, 6_000L));
+        assertEquals(4_000L, ledger.balanceOf(IBAN));
+        assertEquals(6_000L, ledger.balanceOf(otherIban));
+    }
+
+    @Test
+    void flush_shouldWriteEachDirtyAccountOnceInOneBatch() {
+        when(accountRepository.findByIban(IBAN)).thenReturn(Optional.of(new Account(1L, IBAN, 0L)));
+
+        ledger.deposit(IBAN, 1_000L);
+        ledger.deposit(IBAN, 1_000L);
+        ledger.flush();
+        ledger.flush();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(eq("UPDATE account SET balance = ?, version = version + 1 WHERE iban = ?"),
+                argThat((List<Object[]> rows) -> rows.size() == 1
+                        && new BigDecimal("20.00").equals(rows.get(0)[0])
+                        && IBAN.equals(rows.get(0)[1])));
+        verify(journalEntryRepository, times(1)).saveAll(argThat((List<JournalEntry> entries) -> entries.size() == 2
+                && entries.stream().allMatch(JournalEntry::isFolded)));
+        verify(outboxEventRepository, times(1)).saveAll(argThat((List<OutboxEvent> events) -> events.size() == 2
+                && events.get(0).getBalance() == 1_000L
+                && events.get(1).getBalance() == 2_000L));
+    }
+}
@@ -0,0 +1,93 @@
+package com.rabo.bank.service.ledger;
+
+import com.rabo.bank.entities.Account;
+import com.rabo.bank.entities.JournalEntry;
+import com.rabo.bank.entities.OutboxEvent;
+import com.rabo.bank.exception.TransactionNotAllowedException;
+import com.rabo.bank.repository.AccountRepository;
+import com.rabo.bank.repository.JournalEntryRepository;
+import com.rabo.bank.repository.OutboxEventRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JournalLedgerTest {
+
+    private static final String IBAN = "NL91RABO0417164300";
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private JournalEntryRepository journalEntryRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @InjectMocks
+    private JournalLedger ledger;
+
+    @Test
+    void deposit_shouldAppendPendingEntryWithoutTouchingAccountRow() {
+        when(accountRepository.existsByIban(IBAN)).thenReturn(true);
+        when(accountRepository.findJournalBalanceByIban(IBAN)).thenReturn(Optional.of(BigDecimal.valueOf(1500)));
+
+        assertEquals(150_000L, ledger.deposit(IBAN, 50_000L));
+        verify(journalEntryRepository).save(argThat(entry -> !entry.isFolded()
+                && new BigDecimal("500.00").equals(entry.getAmount())));
+        verify(accountRepository, never()).lockByIban(IBAN);
+        verify(accountRepository, never()).save(any(Account.class));
+    }
+
+    @Test
+    void deposit_shouldThrowException_whenAccountNotFound() {
+        when(accountRepository.existsByIban(IBAN)).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class, () -> ledger.deposit(IBAN, 100L));
+    }
+
+    @Test
+    void withdraw_shouldThrowException_whenInsufficientBalance() {
+        when(accountRepository.lockByIban(IBAN)).thenReturn(Optional.of(new Account(1L, IBAN, 80_000L)));
+        when(accountRepository.findJournalBalanceByIban(IBAN)).thenReturn(Optional.of(BigDecimal.valueOf(1000)));
+
+        assertThrows(TransactionNotAllowedException.class, () -> ledger.withdraw(IBAN, 200_000L));
+        verify(journalEntryRepository, never()).save(any(JournalEntry.class));
+        verify(outboxEventRepository, never()).save(any(OutboxEvent.class));
+    }
+
+    @Test
+    void compact_shouldFoldPendingEntriesIntoAccountBalance() {
+        var account = new Account(1L, IBAN, 100_000L);
+        var deposit = JournalEntry.pending(IBAN, 50_000L);
+        var withdrawal = JournalEntry.pending(IBAN, -20_000L);
+        ReflectionTestUtils.setField(deposit, "id", 1L);
+        ReflectionTestUtils.setField(withdrawal, "id", 2L);
+
+        when(accountRepository.lockByIban(IBAN)).thenReturn(Optional.of(account));
+        when(journalEntryRepository.findUnfolded(any(String.class), any(Pageable.class))).thenReturn(List.of(deposit, withdrawal));
+
+        ledger.compact(IBAN, 100);
+
+        assertEquals(130_000L, account.getBalance());
+        verify(journalEntryRepository).markFolded(List.of(1L, 2L));
+    }
+}
@@ -0,0 +1,77 @@
+package com.rabo.bank.service.ledger;
+
+import com.rabo.bank.dto.BatchResultDTO;
+import com.rabo.bank.dto.BatchTransactionDTO;
+import com.rabo.bank.dto.TransactionType;
+import com.rabo.bank.entities.Account;
+import com.rabo.bank.repository.AccountRepository;
+import com.rabo.bank.repository.JournalEntryRepository;
+import com.rabo.bank.repository.OutboxEventRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PessimisticLedgerTest {
+
+    private static final String IBAN = "NL91RABO0417164300";
+    private static final String OTHER_IBAN = "NL91RABO0417164301";
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private JournalEntryRepository journalEntryRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @InjectMocks
+    private PessimisticLedger ledger;
+
+    @Test
+    void deposit_shouldLockTheAccountRow() {
+        var account = new Account(1L, IBAN, 100_000L);
+        when(accountRepository.lockByIban(IBAN)).thenReturn(Optional.of(account));
+
+        assertEquals(150_000L, ledger.deposit(IBAN, 50_000L));
+        verify(accountRepository, never()).findByIban(anyString());
+    }
+
+    @Test
+    void withdraw_shouldThrowException_whenAccountNotFound() {
+        when(accountRepository.lockByIban(IBAN)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> ledger.withdraw(IBAN, 100L));
+    }
+
+    @Test
+    void applyBatch_shouldLockAccountsInIbanOrder() {
+        when(accountRepository.lockAllByIbanIn(List.of(IBAN, OTHER_IBAN))).thenReturn(List.of(
+                new Account(1L, IBAN, 10_000L),
+                new Account(2L, OTHER_IBAN, 10_000L)));
+
+        var results = ledger.applyBatch(List.of(
+                new BatchTransactionDTO(OTHER_IBAN, TransactionType.DEPOSIT, BigDecimal.TEN),
+                new BatchTransactionDTO(IBAN, TransactionType.WITHDRAW, BigDecimal.TEN)));
+
+        assertTrue(results.stream().allMatch(BatchResultDTO::success));
+        verify(accountRepository, never()).findAllByIbanIn(anyCollection());
+    }
+}
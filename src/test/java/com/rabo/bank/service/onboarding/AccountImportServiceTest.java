@@ -0,0 +1,147 @@
+package com.rabo.bank.service.onboarding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabo.bank.entities.Customer;
+import com.rabo.bank.entities.ImportJob;
+import com.rabo.bank.exception.InvalidImportException;
+import com.rabo.bank.repository.AccountRepository;
+import com.rabo.bank.repository.CustomerRepository;
+import com.rabo.bank.repository.ImportJobRepository;
+import com.rabo.bank.repository.OutboxEventRepository;
+import com.rabo.bank.service.IbanAllocator;
+import com.rabo.bank.service.ShardRouter;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AccountImportServiceTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private ImportJobRepository importJobRepository;
+
+    @Mock
+    private IbanAllocator ibanAllocator;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AccountImportService accountImportService;
+
+    @BeforeEach
+    void setUp() {
+        accountImportService = new AccountImportService(customerRepository, accountRepository, outboxEventRepository,
+                importJobRepository, ibanAllocator, new ShardRouter(List.of(), 256), entityManager, transactionManager,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), 2);
+    }
+
+    @Test
+    void importAccounts_shouldImportCsvInChunksAndCountDuplicatesAndRejectedRecords() throws Exception {
+        when(importJobRepository.findById("job")).thenReturn(Optional.empty());
+        when(importJobRepository.save(any(ImportJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(customerRepository.findExistingEmails(anyCollection())).thenReturn(Set.of("jane.smith@example.com"));
+
+        var csv = """
+                firstName,address,emailAddress
+                John,"1 Canal St, Amsterdam",john@example.com
+                Jane,456 Elm St,jane.smith@example.com
+                Mary,789 Oak St,
+
+                Mark,"10 ""Old"" Rd",mark@example.com
+                """;
+
+        var result = accountImportService.importAccounts("job", stream(csv), ImportFormat.CSV);
+
+        assertEquals(4, result.processed());
+        assertEquals(2, result.imported());
+        assertEquals(1, result.duplicates());
+        assertEquals(1, result.rejected());
+        assertTrue(result.completed());
+        verify(customerRepository).saveAll(argThat((List<Customer> customers) -> customers.size() == 1
+                && customers.get(0).getAddress().equals("1 Canal St, Amsterdam")));
+        verify(customerRepository).saveAll(argThat((List<Customer> customers) -> customers.size() == 1
+                && customers.get(0).getAddress().equals("10 \"Old\" Rd")));
+        verify(accountRepository, times(3)).saveAll(anyCollection());
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    void importAccounts_shouldSkipRecordsCommittedBeforeResuming() throws Exception {
+        var job = new ImportJob("job");
+        job.advance(2, 2, 0, 0);
+        when(importJobRepository.findById("job")).thenReturn(Optional.of(job));
+        when(importJobRepository.save(any(ImportJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        var ndjson = """
+                {"firstName":"John","address":"123 Main St","emailAddress":"john@example.com"}
+                {"firstName":"Jane","address":"456 Elm St","emailAddress":"jane@example.com"}
+                {"firstName":"Mark","address":"789 Oak St","emailAddress":"mark@example.com"}
+                """;
+
+        var result = accountImportService.importAccounts("job", stream(ndjson), ImportFormat.NDJSON);
+
+        assertEquals(3, result.processed());
+        assertEquals(3, result.imported());
+        verify(customerRepository).findExistingEmails(argThat(emails -> emails.equals(Set.of("mark@example.com"))));
+    }
+
+    @Test
+    void importAccounts_shouldReturnCompletedJobWithoutReadingInput() throws Exception {
+        var job = new ImportJob("job");
+        job.advance(3, 3, 0, 0);
+        job.complete();
+        when(importJobRepository.findById("job")).thenReturn(Optional.of(job));
+
+        var result = accountImportService.importAccounts("job", stream("not read"), ImportFormat.NDJSON);
+
+        assertEquals(3, result.imported());
+        verify(customerRepository, never()).saveAll(anyCollection());
+    }
+
+    @Test
+    void importAccounts_shouldRejectCsvWithoutRequiredColumns() {
+        when(importJobRepository.findById(anyString())).thenReturn(Optional.empty());
+
+        assertThrows(InvalidImportException.class,
+                () -> accountImportService.importAccounts("job", stream("name,email\nJohn,john@example.com\n"), ImportFormat.CSV));
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,82 @@
+package com.rabo.bank.service.outbox;
+
+import com.rabo.bank.dto.BalanceEventDTO;
+import com.rabo.bank.dto.BalanceEventType;
+import com.rabo.bank.dto.CustomerDTO;
+import com.rabo.bank.dto.TransactionDTO;
+import com.rabo.bank.exception.InsufficientBalanceException;
+import com.rabo.bank.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs against its own database with the scheduled relay effectively off, so the test decides when events are
+ * relayed and no other application context drains them first.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "bank.outbox.relay-interval-ms=3600000"
+})
+@RecordApplicationEvents
+class OutboxIT {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    @Test
+    void relay_shouldPublishEveryChangeOfAnAccountInOrderAndEmptyTheOutbox() {
+        var iban = openAccount();
+        accountService.deposit(iban, new TransactionDTO(new BigDecimal("10.00")));
+        accountService.withdraw(iban, new TransactionDTO(new BigDecimal("4.00")));
+        assertEquals(3, pending(iban));
+
+        outboxRelay.relay();
+
+        var events = applicationEvents.stream(BalanceEventDTO.class)
+                .filter(event -> iban.equals(event.iban()))
+                .toList();
+        assertEquals(List.of(BalanceEventType.ACCOUNT_OPENED, BalanceEventType.DEPOSIT, BalanceEventType.WITHDRAWAL),
+                events.stream().map(BalanceEventDTO::type).toList());
+        assertEquals(List.of(new BigDecimal("0.00"), new BigDecimal("10.00"), new BigDecimal("6.00")),
+                events.stream().map(BalanceEventDTO::balance).toList());
+        assertEquals(0, pending(iban));
+    }
+
+    @Test
+    void withdraw_shouldNotWriteAnEvent_whenItIsRejected() {
+        var iban = openAccount();
+
+        assertThrows(InsufficientBalanceException.class,
+                () -> accountService.withdraw(iban, new TransactionDTO(BigDecimal.ONE)));
+        assertEquals(1, pending(iban));
+    }
+
+    private String openAccount() {
+        return accountService.openAccount(
+                new CustomerDTO("Outbox", "1 Outbox St", UUID.randomUUID() + "@example.com")).iban();
+    }
+
+    private int pending(String iban) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_event WHERE iban = ?", Integer.class, iban);
+    }
+}
@@ -0,0 +1,98 @@
+package com.rabo.bank.service.outbox;
+
+import com.rabo.bank.dto.BalanceEventDTO;
+import com.rabo.bank.dto.BalanceEventType;
+import com.rabo.bank.entities.OutboxEvent;
+import com.rabo.bank.repository.OutboxEventRepository;
+import com.rabo.bank.service.ShardRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    private static final String IBAN = "NL91RABO0417164300";
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private BalanceEventSink sink;
+
+    @Mock
+    private BalanceEventSink otherSink;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void relay_shouldPublishToEverySinkAndDeleteThePublishedEvents() {
+        when(outboxEventRepository.findOldest(any(Pageable.class)))
+                .thenReturn(List.of(event(1L, 10_000L, 10_000L), event(2L, -2_500L, 7_500L)));
+        var meterRegistry = new SimpleMeterRegistry();
+
+        relay(10, meterRegistry).relay();
+
+        var expected = List.of(
+                new BalanceEventDTO(1L, IBAN, BalanceEventType.DEPOSIT, new BigDecimal("100.00"),
+                        new BigDecimal("100.00"), null),
+                new BalanceEventDTO(2L, IBAN, BalanceEventType.WITHDRAWAL, new BigDecimal("-25.00"),
+                        new BigDecimal("75.00"), null));
+        verify(sink).publish(expected);
+        verify(otherSink).publish(expected);
+        verify(outboxEventRepository).deleteByIds(List.of(1L, 2L));
+        assertEquals(2, meterRegistry.counter("bank.outbox.published").count());
+    }
+
+    @Test
+    void relay_shouldKeepTheBatch_whenASinkFails() {
+        when(outboxEventRepository.findOldest(any(Pageable.class))).thenReturn(List.of(event(1L, 100L, 100L)));
+        doThrow(new IllegalStateException("sink down")).when(sink).publish(any());
+
+        assertThrows(IllegalStateException.class, () -> relay(10, new SimpleMeterRegistry()).relay());
+        verify(outboxEventRepository, never()).deleteByIds(anyCollection());
+    }
+
+    @Test
+    void relay_shouldDrainUntilABatchIsNotFull() {
+        when(outboxEventRepository.findOldest(any(Pageable.class)))
+                .thenReturn(List.of(event(1L, 100L, 100L), event(2L, 100L, 200L)))
+                .thenReturn(List.of(event(3L, 100L, 300L)));
+
+        relay(2, new SimpleMeterRegistry()).relay();
+
+        verify(outboxEventRepository, times(2)).findOldest(any(Pageable.class));
+        verify(outboxEventRepository).deleteByIds(List.of(1L, 2L));
+        verify(outboxEventRepository).deleteByIds(List.of(3L));
+    }
+
+    private OutboxRelay relay(int batchSize, SimpleMeterRegistry meterRegistry) {
+        return new OutboxRelay(outboxEventRepository, List.of(sink, otherSink), new ShardRouter(List.of(), 256),
+                transactionManager, batchSize, meterRegistry);
+    }
+
+    private static OutboxEvent event(long id, long amount, long balance) {
+        var event = OutboxEvent.movement(IBAN, amount, balance, null);
+        ReflectionTestUtils.setField(event, "id", id);
+        return event;
+    }
+}